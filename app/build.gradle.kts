@@ -25,6 +25,10 @@ android {
             )
         }
     }
+    androidResources {
+        // Datasets under assets/ are memory-mapped, which needs them stored uncompressed
+        noCompress += "bin"
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -32,10 +36,12 @@ android {
 }
 
 dependencies {
+    implementation(project(":calendar-core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
 
     // WorkManager for background tasks
     implementation("androidx.work:work-runtime:2.11.0")
@@ -5,76 +5,140 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.util.Log;
 
-import java.util.Calendar;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
 
 public class AlarmScheduler {
+    private static final String TAG = "AlarmScheduler";
 
-    public static void scheduleNextAlarm(Context context) {
+    // Upcoming transitions for this process and the inputs they were
+    // computed from; guarded by the class lock
+    private static final TransitionSchedule schedule = new TransitionSchedule();
+    private static CalendarState scheduledFrom;
+    private static ZoneId scheduledZone;
+    // Trigger time of the alarm currently set, or 0 when none is known to be set
+    private static long armedAtMillis;
+
+    public static synchronized void scheduleNextAlarm(Context context) {
         HijriDateManager dateManager = new HijriDateManager(context);
-        String sunsetTime = dateManager.getSunsetTime();
-
-        // Parse sunset time
-        String[] timeParts = sunsetTime.split(":");
-        int sunsetHour = Integer.parseInt(timeParts[0]);
-        int sunsetMinute = Integer.parseInt(timeParts[1]);
-
-        // Set up calendar for next sunset
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.HOUR_OF_DAY, sunsetHour);
-        calendar.set(Calendar.MINUTE, sunsetMinute);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-
-        // If the time has already passed today, schedule for tomorrow
-        if (calendar.getTimeInMillis() <= System.currentTimeMillis()) {
-            calendar.add(Calendar.DAY_OF_YEAR, 1);
+        long now = System.currentTimeMillis();
+
+        // Recompute in one pass when the sunset settings changed or the ring
+        // ran low; the daily advance alone changes neither, so most calls just
+        // drop the transitions that have passed
+        CalendarState state = dateManager.getState();
+        ZoneId zone = SystemZone.get().getZone();
+        schedule.dropPassed(now);
+        if (!sameSchedule(state, zone) || schedule.size() < TransitionSchedule.LENGTH / 2) {
+            schedule.fill(now, zone, dateManager::getSunsetMinutes);
+            scheduledFrom = state;
+            scheduledZone = zone;
         }
 
-        // Create intent for alarm
-        Intent intent = new Intent(context, AlarmReceiver.class);
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                0,
-                intent,
-                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
-        );
+        // The alarm already set is still for the next transition
+        long triggerAtMillis = schedule.peekInstant();
+        if (triggerAtMillis == armedAtMillis) {
+            return;
+        }
 
-        // Schedule alarm
+        // Setting the same PendingIntent again replaces the previous alarm
         AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
         if (alarmManager != null) {
-            // Cancel any existing alarms
-            alarmManager.cancel(pendingIntent);
+            PendingIntent pendingIntent = createPendingIntent(context);
 
             // Set exact alarm
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
                 alarmManager.setExactAndAllowWhileIdle(
                         AlarmManager.RTC_WAKEUP,
-                        calendar.getTimeInMillis(),
+                        triggerAtMillis,
                         pendingIntent
                 );
             } else {
                 alarmManager.setExact(
                         AlarmManager.RTC_WAKEUP,
-                        calendar.getTimeInMillis(),
+                        triggerAtMillis,
                         pendingIntent
                 );
             }
+            armedAtMillis = triggerAtMillis;
         }
     }
 
-    public static void cancelAlarm(Context context) {
+    // Whether the schedule was computed for the same sunsets
+    private static boolean sameSchedule(CalendarState state, ZoneId zone) {
+        CalendarState from = scheduledFrom;
+        return from != null
+                && zone.equals(scheduledZone)
+                && from.getManualSunsetMinutes() == state.getManualSunsetMinutes()
+                && Double.compare(from.getLatitude(), state.getLatitude()) == 0
+                && Double.compare(from.getLongitude(), state.getLongitude()) == 0;
+    }
+
+    // The device moved to another time zone. Transitions on days whose UTC
+    // offset is unchanged stay as they are; the rest are recomputed in place.
+    public static synchronized void onZoneChanged(Context context, ZoneRules oldRules) {
+        ZoneId zone = SystemZone.get().getZone();
+        if (scheduledFrom != null && !schedule.isEmpty()) {
+            HijriDateManager dateManager = new HijriDateManager(context);
+            long drift = schedule.refreshZone(oldRules, zone, dateManager::getSunsetMinutes);
+            scheduledZone = zone;
+            Log.i(TAG, "Time zone changed to " + zone + "; schedule was off by "
+                    + drift / 60_000 + " min");
+        }
+        scheduleNextAlarm(context);
+    }
+
+    // The wall clock was set. Transition instants do not depend on it, so a
+    // jump forward only drops what has passed. The head was the first sunset
+    // after the old time, so the sunset of the day before it had passed; a
+    // jump back to before that sunset leaves a gap, and only then is the
+    // schedule computed again.
+    public static synchronized void onTimeChanged(Context context) {
+        long now = System.currentTimeMillis();
+        if (!schedule.isEmpty() && now < schedule.peekInstant()) {
+            long previousHead = schedule.peekInstant();
+            LocalDate dayBefore = LocalDate.ofEpochDay(schedule.peekDay() - 1);
+            int minutes = new HijriDateManager(context).getSunsetMinutes(dayBefore);
+            long sunsetBefore = dayBefore.atTime(minutes / 60, minutes % 60)
+                    .atZone(SystemZone.get().getZone()).toInstant().toEpochMilli();
+            if (now < sunsetBefore) {
+                scheduledFrom = null;
+                Log.i(TAG, "Clock set back past a sunset; next transition was "
+                        + (previousHead - now) / 60_000 + " min away");
+            }
+        }
+        schedule.dropPassed(now);
+        scheduleNextAlarm(context);
+    }
+
+    // Called when the alarm fires: it is used up, so the next call must set one
+    // even if the fire came early and the head has not passed yet
+    public static synchronized void onAlarmFired(Context context) {
+        armedAtMillis = 0;
+        schedule.dropPassed(System.currentTimeMillis());
+        scheduleNextAlarm(context);
+    }
+
+    private static PendingIntent createPendingIntent(Context context) {
         Intent intent = new Intent(context, AlarmReceiver.class);
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+        return PendingIntent.getBroadcast(
                 context,
                 0,
                 intent,
                 PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
         );
+    }
+
+    public static synchronized void cancelAlarm(Context context) {
+        PendingIntent pendingIntent = createPendingIntent(context);
 
         AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
         if (alarmManager != null) {
             alarmManager.cancel(pendingIntent);
         }
+        armedAtMillis = 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+public class AnniversaryReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        long epochDay = intent.getLongExtra(AnniversaryScheduler.EXTRA_EPOCH_DAY, Long.MIN_VALUE);
+        if (epochDay == Long.MIN_VALUE) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        BackgroundWork.runAsync(this, () -> AnniversaryScheduler.onAlarmFired(appContext, epochDay));
+    }
+}
@@ -0,0 +1,123 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.util.Log;
+
+import com.islamiccalendar.core.HijriCalendar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// One alarm for the whole anniversary list: it is set for the start (the
+// sunset before) of the next Hijri day with any anniversary, and when it
+// fires, everyone due that day goes into one notification before the alarm
+// moves on. However long the list, only one alarm is ever pending.
+final class AnniversaryScheduler {
+    private static final String TAG = "AnniversaryScheduler";
+
+    static final String EXTRA_EPOCH_DAY = "com.islamiccalendar.ANNIVERSARY_DAY";
+
+    // Loaded on first use; guarded by the class lock
+    private static AnniversaryStore store;
+
+    private AnniversaryScheduler() {
+    }
+
+    private static AnniversaryStore getStore(Context context) {
+        if (store == null) {
+            store = AnniversaryStore.open(new File(context.getFilesDir(), AnniversaryStore.NAME));
+        }
+        return store;
+    }
+
+    // Entries loaded for this process
+    static synchronized AnniversaryStore get(Context context) {
+        return getStore(context);
+    }
+
+    // Merge a CSV stream into the list, save it and re-arm; returns the rows skipped
+    static synchronized int importCsv(Context context, InputStream input) throws IOException {
+        AnniversaryStore.Builder builder = new AnniversaryStore.Builder(getStore(context));
+        int skipped = builder.readCsv(input);
+        AnniversaryStore imported = builder.build();
+        imported.save();
+        store = imported;
+        schedule(context);
+        return skipped;
+    }
+
+    // Arm the alarm for the next day with an anniversary not yet notified
+    static synchronized void schedule(Context context) {
+        HijriDateManager dateManager = new HijriDateManager(context);
+        AnniversaryStore anniversaries = getStore(context);
+        long from = dateManager.getHijriEpochDay();
+        long lastNotified = anniversaries.getLastNotifiedEpochDay();
+        if (lastNotified != AnniversaryStore.NONE && lastNotified >= from) {
+            from = lastNotified + 1;
+        }
+        long due = anniversaries.nextDue(dateManager.getCalendar(), from);
+
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            return;
+        }
+        if (due == AnniversaryStore.NONE) {
+            alarmManager.cancel(createPendingIntent(context, 0));
+            return;
+        }
+
+        // The Hijri day begins at the sunset of the Gregorian day before it;
+        // a time already past fires at once
+        LocalDate eve = LocalDate.ofEpochDay(due - 1);
+        int sunset = dateManager.getSunsetMinutes(eve);
+        ZoneId zone = SystemZone.get().getZone();
+        long triggerAtMillis = eve.atTime(sunset / 60, sunset % 60).atZone(zone).toInstant().toEpochMilli();
+
+        // Setting the same PendingIntent again replaces the previous alarm
+        PendingIntent pendingIntent = createPendingIntent(context, due);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAtMillis, pendingIntent);
+        } else {
+            alarmManager.setExact(AlarmManager.RTC_WAKEUP, triggerAtMillis, pendingIntent);
+        }
+    }
+
+    // The alarm for epochDay fired: notify everyone due that day, once, and arm the next day
+    static synchronized void onAlarmFired(Context context, long epochDay) {
+        AnniversaryStore anniversaries = getStore(context);
+        long lastNotified = anniversaries.getLastNotifiedEpochDay();
+        if (lastNotified == AnniversaryStore.NONE || epochDay > lastNotified) {
+            HijriCalendar calendar = new HijriDateManager(context).getCalendar();
+            int[] due = new int[anniversaries.size()];
+            int count = anniversaries.dueWithin(calendar, epochDay, 0, due);
+            if (count > 0) {
+                NotificationDispatcher.sendAnniversaries(context, anniversaries, due, count);
+            }
+            anniversaries.setLastNotifiedEpochDay(epochDay);
+            try {
+                anniversaries.save();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not save anniversaries", e);
+            }
+        }
+        schedule(context);
+    }
+
+    private static PendingIntent createPendingIntent(Context context, long epochDay) {
+        Intent intent = new Intent(context, AnniversaryReceiver.class);
+        intent.putExtra(EXTRA_EPOCH_DAY, epochDay);
+        return PendingIntent.getBroadcast(
+                context,
+                1,
+                intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
+        );
+    }
+}
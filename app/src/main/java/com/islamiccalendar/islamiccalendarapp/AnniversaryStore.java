@@ -0,0 +1,538 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.util.Log;
+
+import com.islamiccalendar.core.HijriCalendar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Hijri anniversaries (birthdays, death anniversaries, community dates) for
+// lists running to thousands of people. Entries are parallel primitive
+// arrays sorted by (month, day): a short key month * 32 + day, a kind byte,
+// and the end of the entry's UTF-8 name in one shared byte[]. "Who is due"
+// is a binary search for the first key of a range that may wrap past the
+// end of the year.
+// Layout on disk (big-endian): int magic 'HAN1', int count, int names
+// length, long last notified epoch day, then count shorts (keys), count
+// bytes (kinds), count ints (name ends), the names, and a CRC32.
+final class AnniversaryStore {
+    private static final String TAG = "AnniversaryStore";
+
+    static final String NAME = "anniversaries.bin";
+
+    static final int KIND_BIRTHDAY = 0;
+    static final int KIND_DEATH = 1;
+    static final int KIND_COMMUNITY = 2;
+
+    // No anniversary to come, or none notified yet
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x48414E31;
+    private static final int HEADER_LENGTH = 20;
+    private static final int LAST_KEY = key(12, 30);
+
+    private final File file;
+    private final short[] keys;
+    private final byte[] kinds;
+    private final int[] nameEnds;
+    private final byte[] names;
+    private long lastNotifiedEpochDay = NONE;
+
+    private AnniversaryStore(File file, short[] keys, byte[] kinds, int[] nameEnds, byte[] names) {
+        this.file = file;
+        this.keys = keys;
+        this.kinds = kinds;
+        this.nameEnds = nameEnds;
+        this.names = names;
+    }
+
+    // Store kept in the given file; a missing or damaged file starts empty
+    static AnniversaryStore open(File file) {
+        if (file.isFile()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until full or end of file
+                }
+                buffer.flip();
+                AnniversaryStore store = decode(file, buffer);
+                if (store != null) {
+                    return store;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Could not read " + file, e);
+            }
+        }
+        return new AnniversaryStore(file, new short[0], new byte[0], new int[0], new byte[0]);
+    }
+
+    // Key of a Hijri month and day; keys sort in calendar order
+    static int key(int month, int day) {
+        return month * 32 + day;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    int monthAt(int index) {
+        return keys[index] >> 5;
+    }
+
+    int dayAt(int index) {
+        return keys[index] & 31;
+    }
+
+    int kindAt(int index) {
+        return kinds[index];
+    }
+
+    // Decoded on demand; the store itself holds no strings
+    String nameAt(int index) {
+        int start = index == 0 ? 0 : nameEnds[index - 1];
+        return new String(names, start, nameEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    long getLastNotifiedEpochDay() {
+        return lastNotifiedEpochDay;
+    }
+
+    void setLastNotifiedEpochDay(long epochDay) {
+        lastNotifiedEpochDay = epochDay;
+    }
+
+    // Indices of the entries whose anniversary falls on epochDay or the
+    // following days, in date order; returns how many were written to out.
+    // A 30th counts on the 1st of the next month in years its month has 29 days.
+    int dueWithin(HijriCalendar calendar, long epochDay, int days, int[] out) {
+        int fromKey = keyAfter(calendar.toHijri(epochDay - 1));
+        int toKey = keyOf(calendar.toHijri(epochDay + days));
+        if (days >= 354) {
+            fromKey = 0;
+            toKey = Short.MAX_VALUE;
+        }
+
+        int n = 0;
+        int start = firstAtLeast(fromKey);
+        if (fromKey <= toKey) {
+            for (int i = start; i < keys.length && keys[i] <= toKey && n < out.length; i++) {
+                out[n++] = i;
+            }
+        } else {
+            // The range wraps past the end of the year
+            for (int i = start; i < keys.length && n < out.length; i++) {
+                out[n++] = i;
+            }
+            for (int i = 0; i < keys.length && keys[i] <= toKey && n < out.length; i++) {
+                out[n++] = i;
+            }
+        }
+        return n;
+    }
+
+    // First epoch day on or after the given one with an anniversary, or NONE when the store is empty
+    long nextDue(HijriCalendar calendar, long epochDay) {
+        if (keys.length == 0) {
+            return NONE;
+        }
+        int previous = calendar.toHijri(epochDay - 1);
+        int year = HijriCalendar.year(previous);
+        int fromKey = keyOf(previous) + 1;
+        if (fromKey > LAST_KEY) {
+            fromKey = 0;
+            year++;
+        }
+        int index = firstAtLeast(fromKey);
+        if (index == keys.length) {
+            index = 0;
+            year++;
+        }
+        int month = monthAt(index);
+        int day = dayAt(index);
+        if (year > calendar.getMaxYear()) {
+            return NONE;
+        }
+        int length = calendar.lengthOfMonth(year, month);
+        return day > length
+                ? calendar.toEpochDay(year, month, length) + 1
+                : calendar.toEpochDay(year, month, day);
+    }
+
+    private static int keyOf(int date) {
+        return key(HijriCalendar.month(date), HijriCalendar.day(date));
+    }
+
+    // First key after a date; the 30th of a 29-day month lies between its
+    // 29th and the 1st, so it is due the day after the 29th
+    private static int keyAfter(int date) {
+        int key = keyOf(date) + 1;
+        return key > LAST_KEY ? 0 : key;
+    }
+
+    // Smallest index whose key is at least the given one, or size() if none
+    private int firstAtLeast(int key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Write the store to a temporary file and rename it over the old one
+    void save() throws IOException {
+        ByteBuffer buffer = encode();
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    ByteBuffer encode() {
+        int count = keys.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + 7 * count + names.length + 4);
+        buffer.putInt(MAGIC);
+        buffer.putInt(count);
+        buffer.putInt(names.length);
+        buffer.putLong(lastNotifiedEpochDay);
+        for (short key : keys) {
+            buffer.putShort(key);
+        }
+        buffer.put(kinds);
+        for (int end : nameEnds) {
+            buffer.putInt(end);
+        }
+        buffer.put(names);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    // Decode encode() output, or return null if the data is not a valid store
+    static AnniversaryStore decode(File file, ByteBuffer buffer) {
+        int start = buffer.position();
+        int length = buffer.remaining();
+        if (length < HEADER_LENGTH + 4 || buffer.getInt(start) != MAGIC) {
+            return null;
+        }
+        int count = buffer.getInt(start + 4);
+        int namesLength = buffer.getInt(start + 8);
+        if (count < 0 || namesLength < 0
+                || length != HEADER_LENGTH + 7L * count + namesLength + 4) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] checked = new byte[length - 4];
+        ByteBuffer in = buffer.duplicate();
+        in.get(checked);
+        crc.update(checked);
+        if ((int) crc.getValue() != buffer.getInt(start + length - 4)) {
+            return null;
+        }
+
+        in.position(start + 12);
+        long lastNotified = in.getLong();
+        short[] keys = new short[count];
+        byte[] kinds = new byte[count];
+        int[] nameEnds = new int[count];
+        byte[] names = new byte[namesLength];
+        for (int i = 0; i < count; i++) {
+            keys[i] = in.getShort();
+        }
+        in.get(kinds);
+        for (int i = 0; i < count; i++) {
+            nameEnds[i] = in.getInt();
+        }
+        in.get(names);
+
+        AnniversaryStore store = new AnniversaryStore(file, keys, kinds, nameEnds, names);
+        store.lastNotifiedEpochDay = lastNotified;
+        return store;
+    }
+
+    // Collects entries in any order into growable primitive arrays, then
+    // sorts them into a new store. Starting from a store keeps its entries.
+    static final class Builder {
+        private final File file;
+        private final long lastNotifiedEpochDay;
+        private short[] keys = new short[64];
+        private byte[] kinds = new byte[64];
+        private int[] nameStarts = new int[64];
+        private int[] nameLengths = new int[64];
+        private byte[] names = new byte[1024];
+        private int count;
+        private int namesLength;
+
+        // Reused for each CSV line
+        private byte[] line = new byte[256];
+
+        Builder(AnniversaryStore from) {
+            this.file = from.file;
+            this.lastNotifiedEpochDay = from.lastNotifiedEpochDay;
+            for (int i = 0; i < from.size(); i++) {
+                int start = i == 0 ? 0 : from.nameEnds[i - 1];
+                add(from.names, start, from.nameEnds[i] - start,
+                        from.monthAt(i), from.dayAt(i), from.kindAt(i));
+            }
+        }
+
+        int size() {
+            return count;
+        }
+
+        // Add one entry whose name is the given UTF-8 bytes
+        void add(byte[] name, int offset, int length, int month, int day, int kind) {
+            if (count == keys.length) {
+                int capacity = count * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                nameStarts = Arrays.copyOf(nameStarts, capacity);
+                nameLengths = Arrays.copyOf(nameLengths, capacity);
+            }
+            if (namesLength + length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + length));
+            }
+            System.arraycopy(name, offset, names, namesLength, length);
+            keys[count] = (short) key(month, day);
+            kinds[count] = (byte) kind;
+            nameStarts[count] = namesLength;
+            nameLengths[count] = length;
+            namesLength += length;
+            count++;
+        }
+
+        // Stream rows of "name,day,month[,kind]" with kind one of birthday,
+        // death or community (community when missing). Names may be quoted,
+        // with "" for a quote. Bytes are parsed in place, one line at a time,
+        // so no object is made per row. Returns the number of rows skipped:
+        // a header, blank lines and rows without a valid day and month.
+        int readCsv(InputStream input) throws IOException {
+            byte[] buffer = new byte[8192];
+            int length = 0;
+            int skipped = 0;
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        skipped += parseLine(length) ? 0 : 1;
+                        length = 0;
+                    } else if (b != '\r') {
+                        if (length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    }
+                }
+            }
+            if (length > 0) {
+                skipped += parseLine(length) ? 0 : 1;
+            }
+            return skipped;
+        }
+
+        // Add the row in line[0, length); false if it is not a valid row
+        private boolean parseLine(int length) {
+            // Name, possibly quoted; quotes are unescaped in place
+            int i = 0;
+            int nameEnd;
+            if (length > 0 && line[0] == '"') {
+                int out = 0;
+                i = 1;
+                while (i < length) {
+                    if (line[i] == '"') {
+                        if (i + 1 < length && line[i + 1] == '"') {
+                            line[out++] = '"';
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    line[out++] = line[i++];
+                }
+                nameEnd = out;
+            } else {
+                while (i < length && line[i] != ',') {
+                    i++;
+                }
+                nameEnd = i;
+            }
+            if (i >= length || line[i] != ',') {
+                return false;
+            }
+            i++;
+
+            int day = 0;
+            int digits = 0;
+            for (; i < length && line[i] != ','; i++) {
+                if (line[i] == ' ') {
+                    continue;
+                }
+                if (line[i] < '0' || line[i] > '9' || ++digits > 2) {
+                    return false;
+                }
+                day = day * 10 + line[i] - '0';
+            }
+            i++;
+            int month = 0;
+            digits = 0;
+            for (; i < length && line[i] != ','; i++) {
+                if (line[i] == ' ') {
+                    continue;
+                }
+                if (line[i] < '0' || line[i] > '9' || ++digits > 2) {
+                    return false;
+                }
+                month = month * 10 + line[i] - '0';
+            }
+            if (day < 1 || day > 30 || month < 1 || month > 12) {
+                return false;
+            }
+
+            int kind = KIND_COMMUNITY;
+            for (i++; i < length; i++) {
+                int c = line[i] | 0x20;
+                if (c == 'b') {
+                    kind = KIND_BIRTHDAY;
+                    break;
+                } else if (c == 'd') {
+                    kind = KIND_DEATH;
+                    break;
+                } else if (c == 'c') {
+                    break;
+                }
+            }
+
+            // Trim an unquoted name
+            int nameStart = 0;
+            while (nameStart < nameEnd && line[nameStart] == ' ') {
+                nameStart++;
+            }
+            while (nameEnd > nameStart && line[nameEnd - 1] == ' ') {
+                nameEnd--;
+            }
+            add(line, nameStart, nameEnd - nameStart, month, day, kind);
+            return true;
+        }
+
+        // Sort by (month, day), keeping insertion order within a day: each
+        // entry becomes one long of key and position, so the sort is one
+        // Arrays.sort over primitives. An entry with the same day, kind and
+        // name as one before it is dropped, so importing a file again, or one
+        // that overlaps the list, adds nobody twice.
+        AnniversaryStore build() {
+            boolean[] dropped = findDuplicates();
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (long) keys[i] << 32 | i;
+            }
+            Arrays.sort(order);
+
+            short[] sortedKeys = new short[count];
+            byte[] sortedKinds = new byte[count];
+            int[] nameEnds = new int[count];
+            byte[] sortedNames = new byte[namesLength];
+            int kept = 0;
+            int end = 0;
+            for (int n = 0; n < count; n++) {
+                int i = (int) order[n];
+                if (dropped[i]) {
+                    continue;
+                }
+                sortedKeys[kept] = keys[i];
+                sortedKinds[kept] = kinds[i];
+                System.arraycopy(names, nameStarts[i], sortedNames, end, nameLengths[i]);
+                end += nameLengths[i];
+                nameEnds[kept] = end;
+                kept++;
+            }
+            if (kept < count) {
+                sortedKeys = Arrays.copyOf(sortedKeys, kept);
+                sortedKinds = Arrays.copyOf(sortedKinds, kept);
+                nameEnds = Arrays.copyOf(nameEnds, kept);
+                sortedNames = Arrays.copyOf(sortedNames, end);
+            }
+
+            AnniversaryStore store = new AnniversaryStore(file, sortedKeys, sortedKinds, nameEnds, sortedNames);
+            store.lastNotifiedEpochDay = lastNotifiedEpochDay;
+            return store;
+        }
+
+        // Mark each entry that repeats an earlier one. Sorting by key, then
+        // a hash of kind and name, then position puts repeats next to each
+        // other, so an entry is only compared with the kept entries of its
+        // own run, which differ only on a hash collision.
+        private boolean[] findDuplicates() {
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (long) keys[i] << 54 | (long) (hash(i) & 0x3FFFFF) << 32 | i;
+            }
+            Arrays.sort(order);
+
+            boolean[] dropped = new boolean[count];
+            int runStart = 0;
+            for (int n = 1; n < count; n++) {
+                if (order[n] >>> 32 != order[n - 1] >>> 32) {
+                    runStart = n;
+                    continue;
+                }
+                int i = (int) order[n];
+                for (int k = runStart; k < n; k++) {
+                    int j = (int) order[k];
+                    if (!dropped[j] && sameEntry(i, j)) {
+                        dropped[i] = true;
+                        break;
+                    }
+                }
+            }
+            return dropped;
+        }
+
+        private int hash(int i) {
+            int h = kinds[i];
+            for (int j = nameStarts[i], end = j + nameLengths[i]; j < end; j++) {
+                h = 31 * h + names[j];
+            }
+            return h ^ h >>> 16;
+        }
+
+        // True if entries i and j have the same kind and name bytes
+        private boolean sameEntry(int i, int j) {
+            if (kinds[i] != kinds[j] || nameLengths[i] != nameLengths[j]) {
+                return false;
+            }
+            for (int k = 0; k < nameLengths[i]; k++) {
+                if (names[nameStarts[i] + k] != names[nameStarts[j] + k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.content.BroadcastReceiver;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// One background thread for receiver work and widget pushes. Running
+// everything on a single thread keeps date transitions, alarm scheduling and
+// notifications in the order they were dispatched, and keeps storage and
+// AlarmManager calls off the main thread. Bulk jobs the user starts, such as
+// exports and imports, run on a second thread so a long one never holds up
+// a sunset rollover queued behind it.
+final class BackgroundWork {
+
+    private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread thread = new Thread(task, "HijriBackground");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService bulkExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "HijriBulk");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BackgroundWork() {
+    }
+
+    // Run a receiver's work in the background. goAsync() keeps the broadcast
+    // open until the work is done, so the process is not dropped halfway.
+    static Future<?> runAsync(BroadcastReceiver receiver, Runnable work) {
+        BroadcastReceiver.PendingResult result = receiver.goAsync();
+        return executor.submit(() -> {
+            try {
+                work.run();
+            } finally {
+                if (result != null) {
+                    // Queued behind whatever the work handed on, such as
+                    // writing out the state it committed
+                    executor.execute(result::finish);
+                }
+            }
+        });
+    }
+
+    static Future<?> submit(Runnable work) {
+        return executor.submit(work);
+    }
+
+    // Run a user-started bulk job, in order with other bulk jobs only
+    static Future<?> submitBulk(Runnable work) {
+        return bulkExecutor.submit(work);
+    }
+
+    static ScheduledFuture<?> schedule(Runnable work, long delayMillis) {
+        return executor.schedule(work, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Wait until everything dispatched before this call has run; delayed work
+    // that is not due yet is not waited for. Returns false on timeout.
+    static boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        return done.await(timeout, unit);
+    }
+}
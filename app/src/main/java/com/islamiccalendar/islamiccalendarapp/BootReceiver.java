@@ -8,8 +8,16 @@ public class BootReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
         if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
-            // Reschedule the alarm after device reboot
-            AlarmScheduler.scheduleNextAlarm(context);
+            Context appContext = context.getApplicationContext();
+            BackgroundWork.runAsync(this, () -> {
+                // Apply the sunsets missed while the device was off, asking
+                // about the moon if one of them held the date on the 29th
+                SunsetRollover.run(appContext);
+
+                // Reschedule the alarms after device reboot
+                AlarmScheduler.scheduleNextAlarm(appContext);
+                AnniversaryScheduler.schedule(appContext);
+            });
         }
     }
 }
\ No newline at end of file
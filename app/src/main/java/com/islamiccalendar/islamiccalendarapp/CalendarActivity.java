@@ -0,0 +1,315 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.GridLayout;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.HijriMonths;
+import com.islamiccalendar.core.MonthGrid;
+
+import java.text.DateFormatSymbols;
+
+// Scrollable month view and year-at-a-glance view over the whole range of
+// the corrected calendar, with Hijri and Gregorian days side by side and
+// events marked. Items only read grids from MonthGridCache; a grid that is
+// not cached yet is computed in the background and its item redrawn when
+// it is ready, and the months ahead in the scrolling direction are
+// prefetched so they are usually cached before they come into view.
+public class CalendarActivity extends AppCompatActivity {
+
+    // Months computed ahead of the first visible one in the scrolling direction, and behind it
+    private static final int PREFETCH_AHEAD = 6;
+    private static final int PREFETCH_BEHIND = 2;
+
+    private static final int IN_MONTH_COLOR = 0xFFFFFFFF;
+    private static final int OTHER_MONTH_COLOR = 0xFF556677;
+    private static final int EVENT_COLOR = 0xFFE0B45A;
+    private static final int TODAY_BACKGROUND = 0xFF2E4057;
+    private static final int NO_BACKGROUND = 0x00000000;
+
+    private static final String[] GREGORIAN_MONTHS = new DateFormatSymbols().getShortMonths();
+
+    private HijriDateManager dateManager;
+    private HijriCalendar calendar;
+    private long today;
+    private RecyclerView calendarPages;
+    private LinearLayoutManager layoutManager;
+    private Button monthViewButton;
+    private Button yearViewButton;
+    private boolean yearView;
+    private int lastPrefetched = RecyclerView.NO_POSITION;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_calendar);
+
+        dateManager = new HijriDateManager(this);
+        calendarPages = findViewById(R.id.calendarPages);
+        monthViewButton = findViewById(R.id.monthViewButton);
+        yearViewButton = findViewById(R.id.yearViewButton);
+
+        layoutManager = new LinearLayoutManager(this);
+        calendarPages.setLayoutManager(layoutManager);
+        calendarPages.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                prefetch(dy >= 0);
+            }
+        });
+
+        monthViewButton.setOnClickListener(v -> show(false));
+        yearViewButton.setOnClickListener(v -> show(true));
+        show(false);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // A correction made elsewhere replaces the calendar: redraw with it
+        if (dateManager.getCalendar() != calendar || dateManager.getHijriEpochDay() != today) {
+            calendar = dateManager.getCalendar();
+            today = dateManager.getHijriEpochDay();
+            lastPrefetched = RecyclerView.NO_POSITION;
+            calendarPages.getAdapter().notifyDataSetChanged();
+        }
+    }
+
+    // Switch between month and year items, keeping the current date in view
+    private void show(boolean years) {
+        yearView = years;
+        calendar = dateManager.getCalendar();
+        today = dateManager.getHijriEpochDay();
+        lastPrefetched = RecyclerView.NO_POSITION;
+
+        int date = calendar.toHijri(today);
+        int yearIndex = HijriCalendar.year(date) - calendar.getMinYear();
+        if (years) {
+            calendarPages.setAdapter(new YearAdapter());
+            layoutManager.scrollToPositionWithOffset(yearIndex, 0);
+        } else {
+            calendarPages.setAdapter(new MonthAdapter());
+            layoutManager.scrollToPositionWithOffset(yearIndex * 12 + HijriCalendar.month(date) - 1, 0);
+        }
+        prefetch(true);
+    }
+
+    // Queue the months around the first visible item, more of them on the
+    // side the list is moving towards
+    private void prefetch(boolean forward) {
+        int first = layoutManager.findFirstVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || first == lastPrefetched) {
+            return;
+        }
+        lastPrefetched = first;
+        if (yearView) {
+            // From January of the visible year, the whole next or previous year too
+            int year = calendar.getMinYear() + first;
+            MonthGridCache.prefetch(calendar, year, 1, forward ? 0 : 12, forward ? 23 : 11);
+        } else {
+            int year = calendar.getMinYear() + first / 12;
+            int month = first % 12 + 1;
+            MonthGridCache.prefetch(calendar, year, month,
+                    forward ? PREFETCH_BEHIND : PREFETCH_AHEAD, forward ? PREFETCH_AHEAD : PREFETCH_BEHIND);
+        }
+    }
+
+    // Redraw an item once its grids are cached, if it is still in the list shown
+    private Runnable redraw(RecyclerView.Adapter<?> adapter, int position) {
+        return () -> runOnUiThread(() -> {
+            if (calendarPages.getAdapter() == adapter) {
+                adapter.notifyItemChanged(position);
+            }
+        });
+    }
+
+    // Day number into a cell's text, returning the new length
+    private static int appendNumber(char[] text, int length, int number) {
+        if (number >= 10) {
+            text[length++] = (char) ('0' + number / 10);
+        }
+        text[length++] = (char) ('0' + number % 10);
+        return length;
+    }
+
+    private int yearCount() {
+        return calendar.getMaxYear() - calendar.getMinYear() + 1;
+    }
+
+    // "Ramadan 1447" and the Gregorian months it falls in
+    private static void appendTitle(StringBuilder title, MonthGrid grid, int year, int month) {
+        title.append(HijriMonths.englishName(month)).append(' ').append(year);
+        if (grid == null) {
+            return;
+        }
+        int first = grid.gregorianAt(grid.getFirstCell());
+        int last = grid.gregorianAt(grid.getFirstCell() + grid.getLength() - 1);
+        title.append("  ·  ").append(GREGORIAN_MONTHS[HijriCalendar.month(first) - 1]);
+        if (HijriCalendar.year(first) != HijriCalendar.year(last)) {
+            title.append(' ').append(HijriCalendar.year(first));
+        }
+        title.append(" – ").append(GREGORIAN_MONTHS[HijriCalendar.month(last) - 1])
+                .append(' ').append(HijriCalendar.year(last));
+    }
+
+    private final class MonthAdapter extends RecyclerView.Adapter<MonthHolder> {
+
+        @Override
+        public MonthHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new MonthHolder(LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_month, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(MonthHolder holder, int position) {
+            int year = calendar.getMinYear() + position / 12;
+            int month = position % 12 + 1;
+            holder.bind(MonthGridCache.get(calendar, year, month, redraw(this, position)), year, month);
+        }
+
+        @Override
+        public int getItemCount() {
+            return yearCount() * 12;
+        }
+    }
+
+    private final class YearAdapter extends RecyclerView.Adapter<YearHolder> {
+
+        @Override
+        public YearHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new YearHolder(LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_year, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(YearHolder holder, int position) {
+            holder.bind(calendar.getMinYear() + position, redraw(this, position));
+        }
+
+        @Override
+        public int getItemCount() {
+            return yearCount();
+        }
+    }
+
+    // One month: a title and 42 cells of Hijri day over Gregorian day
+    private final class MonthHolder extends RecyclerView.ViewHolder {
+        private final TextView title;
+        private final TextView[] cells = new TextView[MonthGrid.CELLS];
+        private final char[][] cellText = new char[MonthGrid.CELLS][5];
+        private final StringBuilder titleText = new StringBuilder();
+
+        MonthHolder(View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.monthTitle);
+            GridLayout grid = itemView.findViewById(R.id.monthCells);
+            LayoutInflater inflater = LayoutInflater.from(itemView.getContext());
+            for (int i = 0; i < MonthGrid.CELLS; i++) {
+                cells[i] = (TextView) inflater.inflate(R.layout.item_day_cell, grid, false);
+                grid.addView(cells[i]);
+            }
+        }
+
+        void bind(MonthGrid grid, int year, int month) {
+            titleText.setLength(0);
+            appendTitle(titleText, grid, year, month);
+            title.setText(titleText);
+
+            for (int i = 0; i < MonthGrid.CELLS; i++) {
+                TextView cell = cells[i];
+                int hijri = grid != null ? grid.hijriAt(i) : 0;
+                if (hijri == 0) {
+                    cell.setText("");
+                    cell.setBackgroundColor(NO_BACKGROUND);
+                    continue;
+                }
+                char[] text = cellText[i];
+                int length = appendNumber(text, 0, HijriCalendar.day(hijri));
+                text[length++] = '\n';
+                length = appendNumber(text, length, HijriCalendar.day(grid.gregorianAt(i)));
+                cell.setText(text, 0, length);
+                bindColors(cell, grid, i);
+            }
+        }
+    }
+
+    // One year: twelve small months of Hijri days
+    private final class YearHolder extends RecyclerView.ViewHolder {
+        private final TextView title;
+        private final TextView[] monthTitles = new TextView[12];
+        private final TextView[][] cells = new TextView[12][MonthGrid.CELLS];
+        private final char[][][] cellText = new char[12][MonthGrid.CELLS][2];
+        private final StringBuilder titleText = new StringBuilder();
+
+        YearHolder(View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.yearTitle);
+            GridLayout months = itemView.findViewById(R.id.yearMonths);
+            LayoutInflater inflater = LayoutInflater.from(itemView.getContext());
+            for (int m = 0; m < 12; m++) {
+                View month = inflater.inflate(R.layout.item_mini_month, months, false);
+                months.addView(month);
+                monthTitles[m] = month.findViewById(R.id.miniMonthTitle);
+                monthTitles[m].setText(HijriMonths.englishName(m + 1));
+                GridLayout grid = month.findViewById(R.id.miniMonthCells);
+                for (int i = 0; i < MonthGrid.CELLS; i++) {
+                    cells[m][i] = (TextView) inflater.inflate(R.layout.item_mini_cell, grid, false);
+                    grid.addView(cells[m][i]);
+                }
+            }
+        }
+
+        void bind(int year, Runnable onReady) {
+            MonthGrid first = null;
+            MonthGrid last = null;
+            for (int m = 0; m < 12; m++) {
+                MonthGrid grid = MonthGridCache.get(calendar, year, m + 1, onReady);
+                if (m == 0) {
+                    first = grid;
+                } else if (m == 11) {
+                    last = grid;
+                }
+                for (int i = 0; i < MonthGrid.CELLS; i++) {
+                    TextView cell = cells[m][i];
+                    if (grid == null || !grid.isInMonth(i)) {
+                        cell.setText("");
+                        cell.setBackgroundColor(NO_BACKGROUND);
+                        continue;
+                    }
+                    char[] text = cellText[m][i];
+                    cell.setText(text, 0, appendNumber(text, 0, HijriCalendar.day(grid.hijriAt(i))));
+                    bindColors(cell, grid, i);
+                }
+            }
+
+            // "1447 AH  ·  2025 – 2026"
+            titleText.setLength(0);
+            titleText.append(year).append(" AH");
+            if (first != null && last != null) {
+                titleText.append("  ·  ").append(HijriCalendar.year(first.gregorianAt(first.getFirstCell())))
+                        .append(" – ").append(HijriCalendar.year(
+                                last.gregorianAt(last.getFirstCell() + last.getLength() - 1)));
+            }
+            title.setText(titleText);
+        }
+    }
+
+    // Dim days of the months either side, mark events and today
+    private void bindColors(TextView cell, MonthGrid grid, int i) {
+        if (!grid.isInMonth(i)) {
+            cell.setTextColor(OTHER_MONTH_COLOR);
+        } else {
+            cell.setTextColor(grid.eventAt(i) != MonthGrid.NO_EVENT ? EVENT_COLOR : IN_MONTH_COLOR);
+        }
+        cell.setBackgroundColor(grid.epochDayAt(i) == today ? TODAY_BACKGROUND : NO_BACKGROUND);
+    }
+}
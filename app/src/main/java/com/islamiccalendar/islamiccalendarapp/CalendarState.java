@@ -0,0 +1,113 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import com.islamiccalendar.core.AdjustedHijriCalendar;
+import com.islamiccalendar.core.TimeOfDay;
+
+// Everything the app persists about the date, as one immutable value.
+// Changes go through CalendarStateStore.commit(), which swaps in a copy
+// with the version increased by one; nothing here is ever mutated.
+public final class CalendarState {
+
+    // Epoch day value meaning the user has not set a date yet
+    public static final long UNSET = Long.MIN_VALUE;
+
+    private final long version;
+    private final long epochDay;
+    private final long lastUpdateDay;
+    private final int manualSunsetMinutes;
+    private final double latitude;
+    private final double longitude;
+    private final AdjustedHijriCalendar calendar;
+    private final boolean firstLaunch;
+
+    CalendarState(long version, long epochDay, long lastUpdateDay, int manualSunsetMinutes,
+                  double latitude, double longitude, AdjustedHijriCalendar calendar,
+                  boolean firstLaunch) {
+        this.version = version;
+        this.epochDay = epochDay;
+        this.lastUpdateDay = lastUpdateDay;
+        this.manualSunsetMinutes = manualSunsetMinutes != TimeOfDay.INVALID
+                ? manualSunsetMinutes : 18 * 60;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.calendar = calendar;
+        this.firstLaunch = firstLaunch;
+    }
+
+    // Number of commits this state is the result of
+    public long getVersion() {
+        return version;
+    }
+
+    // Epoch day whose Hijri conversion is the current date, or UNSET
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public boolean isDateSet() {
+        return epochDay != UNSET;
+    }
+
+    // Epoch day of the last automatic or manual update, or UNSET
+    public long getLastUpdateDay() {
+        return lastUpdateDay;
+    }
+
+    // Sunset entered by the user, in minutes after midnight
+    public int getManualSunsetMinutes() {
+        return manualSunsetMinutes;
+    }
+
+    public boolean hasLocation() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    // Conversion engine with the sighting corrections applied. Treat it as
+    // read-only: transitions that correct it must work on a copy.
+    public AdjustedHijriCalendar getCalendar() {
+        return calendar;
+    }
+
+    // True until the welcome dialog has been shown
+    public boolean isFirstLaunch() {
+        return firstLaunch;
+    }
+
+    CalendarState withVersion(long version) {
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, calendar, firstLaunch);
+    }
+
+    CalendarState withEpochDay(long epochDay, long lastUpdateDay) {
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, calendar, firstLaunch);
+    }
+
+    CalendarState withCalendar(AdjustedHijriCalendar calendar) {
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, calendar, firstLaunch);
+    }
+
+    CalendarState withManualSunsetMinutes(int manualSunsetMinutes) {
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, calendar, firstLaunch);
+    }
+
+    CalendarState withLocation(double latitude, double longitude) {
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, calendar, firstLaunch);
+    }
+
+    CalendarState withFirstLaunch(boolean firstLaunch) {
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, calendar, firstLaunch);
+    }
+}
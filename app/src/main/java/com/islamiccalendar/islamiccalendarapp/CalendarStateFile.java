@@ -0,0 +1,179 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.util.Log;
+
+import com.islamiccalendar.core.AdjustedHijriCalendar;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.SightingAdjustments;
+import com.islamiccalendar.core.TabularHijriCalendar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// CalendarState on disk as a small fixed-layout file, so cold starts of the
+// widget and the receivers read ~60 bytes instead of parsing preferences XML.
+// Layout (big-endian):
+//   int magic 'HCS1', byte format, byte flags, short manual sunset minutes,
+//   long version, long epoch day, long last update day,
+//   double latitude, double longitude,
+//   short correction count, then (short month index, short delta) per correction,
+//   int CRC32 of everything before it.
+// The tabular-base flag records which calendar the corrections were made
+// against; format 1 files predate it.
+// Writes go to a temporary file that is renamed over the old one, so a crash
+// leaves either the old state or the new one.
+final class CalendarStateFile {
+    private static final String TAG = "CalendarStateFile";
+
+    static final String NAME = "hijri_state.bin";
+
+    private static final int MAGIC = 0x48435331;
+    private static final int FORMAT = 2;
+    private static final int FORMAT_WITHOUT_BASE = 1;
+    private static final int HEADER_LENGTH = 50;
+    private static final int FLAG_FIRST_LAUNCH = 1;
+    private static final int FLAG_TABULAR_BASE = 2;
+    private static final int MAX_CORRECTIONS = 4096;
+
+    private CalendarStateFile() {
+    }
+
+    // State saved in the file, or null if there is no file yet. A file that
+    // is there but cannot be read or is damaged throws instead.
+    static CalendarState read(File file, HijriCalendar base) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > HEADER_LENGTH + 4L * MAX_CORRECTIONS + 4) {
+                throw new IOException("State file too long: " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until full or end of file
+            }
+            buffer.flip();
+            CalendarState state = decode(buffer, base);
+            if (state == null) {
+                throw new IOException("State file damaged");
+            }
+            return state;
+        }
+    }
+
+    // Keep a damaged file for inspection instead of overwriting it
+    static void setAside(File file) {
+        File damaged = new File(file.getPath() + ".damaged");
+        if (!file.renameTo(damaged)) {
+            Log.w(TAG, "Could not move " + file + " aside");
+        }
+    }
+
+    // Replace the file with the given state
+    static void write(File file, CalendarState state) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        ByteBuffer buffer = encode(state);
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static ByteBuffer encode(CalendarState state) {
+        SightingAdjustments adjustments = state.getCalendar().getAdjustments();
+        int count = adjustments.count();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + 4 * count + 4);
+
+        buffer.putInt(MAGIC);
+        buffer.put((byte) FORMAT);
+        int flags = state.isFirstLaunch() ? FLAG_FIRST_LAUNCH : 0;
+        if (state.getCalendar().getBase() instanceof TabularHijriCalendar) {
+            flags |= FLAG_TABULAR_BASE;
+        }
+        buffer.put((byte) flags);
+        buffer.putShort((short) state.getManualSunsetMinutes());
+        buffer.putLong(state.getVersion());
+        buffer.putLong(state.getEpochDay());
+        buffer.putLong(state.getLastUpdateDay());
+        buffer.putDouble(state.getLatitude());
+        buffer.putDouble(state.getLongitude());
+        buffer.putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            buffer.putShort((short) adjustments.monthAt(i));
+            buffer.putShort((short) adjustments.deltaAt(i));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    // Decode encode() output, or return null if the data is not a valid state
+    static CalendarState decode(ByteBuffer buffer, HijriCalendar base) {
+        int start = buffer.position();
+        int length = buffer.remaining();
+        if (length < HEADER_LENGTH + 4 || buffer.getInt(start) != MAGIC) {
+            return null;
+        }
+        int format = buffer.get(start + 4);
+        if (format != FORMAT && format != FORMAT_WITHOUT_BASE) {
+            return null;
+        }
+        int count = buffer.getShort(start + HEADER_LENGTH - 2) & 0xFFFF;
+        if (length != HEADER_LENGTH + 4 * count + 4) {
+            return null;
+        }
+
+        byte[] checked = new byte[length - 4];
+        ByteBuffer in = buffer.duplicate();
+        in.get(checked);
+        CRC32 crc = new CRC32();
+        crc.update(checked);
+        if ((int) crc.getValue() != buffer.getInt(start + length - 4)) {
+            return null;
+        }
+
+        in.position(start + 5);
+        int flags = in.get();
+        int manualSunsetMinutes = in.getShort();
+        long version = in.getLong();
+        long epochDay = in.getLong();
+        long lastUpdateDay = in.getLong();
+        double latitude = in.getDouble();
+        double longitude = in.getDouble();
+        in.getShort();
+
+        // Corrections made against the other base calendar would move the
+        // wrong months, e.g. Umm al-Qura ones once its dataset fails to load,
+        // so they are dropped along with any outside the base calendar's months
+        boolean sameBase = format == FORMAT_WITHOUT_BASE
+                || ((flags & FLAG_TABULAR_BASE) != 0) == (base instanceof TabularHijriCalendar);
+        int monthCount = AdjustedHijriCalendar.monthCount(base);
+        SightingAdjustments adjustments = new SightingAdjustments(monthCount);
+        for (int i = 0; i < count; i++) {
+            int month = in.getShort();
+            int delta = in.getShort();
+            if (sameBase && month >= 0 && month < monthCount) {
+                adjustments.add(month, delta);
+            }
+        }
+
+        return new CalendarState(version, epochDay, lastUpdateDay, manualSunsetMinutes,
+                latitude, longitude, new AdjustedHijriCalendar(base, adjustments),
+                (flags & FLAG_FIRST_LAUNCH) != 0);
+    }
+}
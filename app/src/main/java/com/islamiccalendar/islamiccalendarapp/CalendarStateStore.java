@@ -0,0 +1,155 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.islamiccalendar.core.AdjustedHijriCalendar;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.SightingAdjustments;
+import com.islamiccalendar.core.TimeOfDay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Compare-and-set store for CalendarState. A transition is a pure function
+// from the current state to the next one; commit() applies it to the latest
+// state and retries on conflict, so a sunset alarm racing a user correction
+// ends up with both applied in some order instead of one being lost.
+final class CalendarStateStore {
+    private static final String TAG = "CalendarStateStore";
+
+    // Preference keys the state was kept under before CalendarStateFile
+    static final String KEY_CURRENT_DAY = "current_epoch_day";
+    static final String KEY_ADJUSTMENTS = "sighting_adjustments";
+    static final String KEY_SUNSET_TIME = "sunset_time";
+    static final String KEY_LATITUDE = "latitude";
+    static final String KEY_LONGITUDE = "longitude";
+    static final String KEY_LAST_UPDATE = "last_update_date";
+    static final String KEY_VERSION = "state_version";
+    static final String KEY_IS_FIRST_LAUNCH = "is_first_launch";
+    // Set once they are moved into the file, so they are never read again
+    static final String KEY_MIGRATED = "state_file_migrated";
+
+    // Maps the current state to the next one, or to null to leave it as it is.
+    // It may run more than once when writers collide, so it must not have side effects.
+    interface Transition {
+        CalendarState apply(CalendarState current);
+    }
+
+    private final File file;
+    private final AtomicReference<CalendarState> state;
+
+    // Guards only the write-out order, never the transition itself
+    private final Object persistLock = new Object();
+    private long persistedVersion;
+
+    // Store backed by the given file, starting from a state already read from
+    // it (or migrated into it)
+    CalendarStateStore(File file, CalendarState initial) {
+        this.file = file;
+        this.state = new AtomicReference<>(initial);
+        this.persistedVersion = initial.getVersion();
+    }
+
+    CalendarState get() {
+        return state.get();
+    }
+
+    // Apply a transition as one atomic step. Returns the committed state, or
+    // null when the transition left the state unchanged.
+    CalendarState commit(Transition transition) {
+        while (true) {
+            CalendarState current = state.get();
+            CalendarState next = transition.apply(current);
+            if (next == null || next == current) {
+                return null;
+            }
+            next = next.withVersion(current.getVersion() + 1);
+            if (state.compareAndSet(current, next)) {
+                // The file is written on the background thread, never the caller's
+                BackgroundWork.submit(this::persist);
+                return next;
+            }
+        }
+    }
+
+    // Write the latest committed state out. A burst of commits queues one
+    // write each, but only the first finds anything newer to write.
+    private void persist() {
+        synchronized (persistLock) {
+            CalendarState latest = state.get();
+            if (latest.getVersion() <= persistedVersion) {
+                return;
+            }
+            persistedVersion = latest.getVersion();
+            try {
+                CalendarStateFile.write(file, latest);
+            } catch (IOException e) {
+                // The state stays committed in memory; the next commit tries again
+                Log.w(TAG, "Could not save state", e);
+            }
+        }
+    }
+
+    // Write the current state out even if it was never committed, e.g. right
+    // after a migration. Returns whether it was written.
+    boolean flush() {
+        synchronized (persistLock) {
+            try {
+                CalendarStateFile.write(file, state.get());
+                persistedVersion = state.get().getVersion();
+                return true;
+            } catch (IOException e) {
+                Log.w(TAG, "Could not save state", e);
+                return false;
+            }
+        }
+    }
+
+    // State of a fresh install: no date set, no location, no corrections
+    static CalendarState initial(HijriCalendar base) {
+        return new CalendarState(0, CalendarState.UNSET, CalendarState.UNSET, 18 * 60,
+                Double.NaN, Double.NaN, new AdjustedHijriCalendar(base,
+                new SightingAdjustments(AdjustedHijriCalendar.monthCount(base))), true);
+    }
+
+    // Remove the keys fromPreferences() reads and mark them migrated
+    static void clearPreferences(SharedPreferences.Editor editor) {
+        editor.remove(KEY_CURRENT_DAY)
+                .remove(KEY_ADJUSTMENTS)
+                .remove(KEY_SUNSET_TIME)
+                .remove(KEY_LATITUDE)
+                .remove(KEY_LONGITUDE)
+                .remove(KEY_LAST_UPDATE)
+                .remove(KEY_VERSION)
+                .remove(KEY_IS_FIRST_LAUNCH)
+                .putBoolean(KEY_MIGRATED, true);
+    }
+
+    // State as kept in preferences by earlier versions
+    static CalendarState fromPreferences(SharedPreferences prefs, HijriCalendar base) {
+        long epochDay = prefs.contains(KEY_CURRENT_DAY)
+                ? prefs.getLong(KEY_CURRENT_DAY, 0) : CalendarState.UNSET;
+
+        long lastUpdateDay = CalendarState.UNSET;
+        String lastUpdate = prefs.getString(KEY_LAST_UPDATE, null);
+        if (lastUpdate != null) {
+            try {
+                lastUpdateDay = Long.parseLong(lastUpdate);
+            } catch (NumberFormatException ignored) {
+                // Treated as never updated
+            }
+        }
+
+        boolean hasLocation = prefs.contains(KEY_LATITUDE) && prefs.contains(KEY_LONGITUDE);
+        AdjustedHijriCalendar calendar = new AdjustedHijriCalendar(base, SightingAdjustments.decode(
+                prefs.getString(KEY_ADJUSTMENTS, null), AdjustedHijriCalendar.monthCount(base)));
+
+        return new CalendarState(prefs.getLong(KEY_VERSION, 0), epochDay, lastUpdateDay,
+                TimeOfDay.parse24Hour(prefs.getString(KEY_SUNSET_TIME, "18:00")),
+                hasLocation ? prefs.getFloat(KEY_LATITUDE, 0f) : Double.NaN,
+                hasLocation ? prefs.getFloat(KEY_LONGITUDE, 0f) : Double.NaN,
+                calendar, prefs.getBoolean(KEY_IS_FIRST_LAUNCH, true));
+    }
+}
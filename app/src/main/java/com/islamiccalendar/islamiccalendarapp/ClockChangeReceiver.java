@@ -0,0 +1,44 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import java.time.zone.ZoneRules;
+
+public class ClockChangeReceiver extends BroadcastReceiver {
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        boolean zoneChanged = Intent.ACTION_TIMEZONE_CHANGED.equals(action);
+        if (!zoneChanged && !Intent.ACTION_TIME_CHANGED.equals(action)) {
+            return;
+        }
+
+        Context appContext = context.getApplicationContext();
+        BackgroundWork.runAsync(this, () -> handleClockChange(appContext, zoneChanged));
+    }
+
+    private void handleClockChange(Context context, boolean zoneChanged) {
+        // Today and today's sunset are different now
+        ZoneRules oldRules = SystemZone.get().getRules();
+        if (zoneChanged) {
+            SystemZone.refresh();
+        }
+        HijriDateManager.onClockChanged();
+
+        // A clock set forward can pass sunsets, and a date that was never set
+        // follows the clock, so the widget is redrawn either way
+        if (SunsetRollover.run(context) == HijriDateManager.Increment.NOT_DUE) {
+            CalendarWidget.updateWidgetNow(context);
+        }
+
+        // Move only the transitions the change affects
+        if (zoneChanged) {
+            AlarmScheduler.onZoneChanged(context, oldRules);
+        } else {
+            AlarmScheduler.onTimeChanged(context);
+        }
+        AnniversaryScheduler.schedule(context);
+    }
+}
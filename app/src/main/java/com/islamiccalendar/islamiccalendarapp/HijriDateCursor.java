@@ -0,0 +1,133 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.IslamicEvents;
+
+// Read-only cursor over rows [offset, offset + count) of primitive column
+// arrays that HijriDateProvider caches. Rows are never materialized: every
+// getter reads straight from the arrays, so a cursor costs one small object
+// however many rows it shows, and cursors over the same cached result share
+// its arrays. The arrays must not change once a cursor has them.
+final class HijriDateCursor extends AbstractCursor {
+
+    // What each column reads
+    static final int ID = 0;
+    static final int EPOCH_DAY = 1;
+    static final int HIJRI_YEAR = 2;
+    static final int HIJRI_MONTH = 3;
+    static final int HIJRI_DAY = 4;
+    // Event kind from extras
+    static final int EXTRA = 5;
+    // IslamicEvents name of the kind in extras
+    static final int EVENT_NAME = 6;
+
+    private final String[] names;
+    private final int[] sources;
+    private final long[] epochDays;
+    private final int[] hijri;
+    private final int[] extras;
+    private final int offset;
+    private final int count;
+
+    // names and sources describe every column the result has; a projection
+    // picks some of them by name, in its own order
+    HijriDateCursor(String[] names, int[] sources, String[] projection,
+                    long[] epochDays, int[] hijri, int[] extras, int offset, int count) {
+        if (projection == null) {
+            this.names = names;
+            this.sources = sources;
+        } else {
+            this.names = projection;
+            this.sources = new int[projection.length];
+            for (int i = 0; i < projection.length; i++) {
+                this.sources[i] = sources[indexOf(names, projection[i])];
+            }
+        }
+        this.epochDays = epochDays;
+        this.hijri = hijri;
+        this.extras = extras;
+        this.offset = offset;
+        this.count = count;
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + name);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return names;
+    }
+
+    @Override
+    public long getLong(int column) {
+        int row = offset + getPosition();
+        switch (sources[column]) {
+            case ID:
+                return getPosition();
+            case EPOCH_DAY:
+                return epochDays[row];
+            case HIJRI_YEAR:
+                return HijriCalendar.year(hijri[row]);
+            case HIJRI_MONTH:
+                return HijriCalendar.month(hijri[row]);
+            case HIJRI_DAY:
+                return HijriCalendar.day(hijri[row]);
+            case EXTRA:
+                return extras[row];
+            default:
+                throw new IllegalArgumentException("Not a number column: " + names[column]);
+        }
+    }
+
+    @Override
+    public int getInt(int column) {
+        return (int) getLong(column);
+    }
+
+    @Override
+    public short getShort(int column) {
+        return (short) getLong(column);
+    }
+
+    @Override
+    public float getFloat(int column) {
+        return getLong(column);
+    }
+
+    @Override
+    public double getDouble(int column) {
+        return getLong(column);
+    }
+
+    @Override
+    public String getString(int column) {
+        if (sources[column] == EVENT_NAME) {
+            return IslamicEvents.name(extras[offset + getPosition()]);
+        }
+        return Long.toString(getLong(column));
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return false;
+    }
+
+    @Override
+    public int getType(int column) {
+        return sources[column] == EVENT_NAME ? Cursor.FIELD_TYPE_STRING : Cursor.FIELD_TYPE_INTEGER;
+    }
+}
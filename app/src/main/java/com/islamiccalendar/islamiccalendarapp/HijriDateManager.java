@@ -2,203 +2,609 @@ package com.islamiccalendar.islamiccalendarapp;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import com.islamiccalendar.core.AdjustedHijriCalendar;
+import com.islamiccalendar.core.CrescentForecast;
+import com.islamiccalendar.core.CrescentVisibility;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.HijriDateFormatter;
+import com.islamiccalendar.core.HijriMonths;
+import com.islamiccalendar.core.IslamicEvents;
+import com.islamiccalendar.core.PrayerMethod;
+import com.islamiccalendar.core.PrayerTimes;
+import com.islamiccalendar.core.RolloverStateMachine;
+import com.islamiccalendar.core.SightingAdjustments;
+import com.islamiccalendar.core.SunsetCalculator;
+import com.islamiccalendar.core.TabularHijriCalendar;
+import com.islamiccalendar.core.TimeOfDay;
+import com.islamiccalendar.core.UmmAlQuraCalendar;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 
 public class HijriDateManager {
+    private static final String TAG = "HijriDateManager";
+    private static final String UMM_AL_QURA_ASSET = "umm_al_qura.bin";
     private static final String PREFS_NAME = "HijriCalendarPrefs";
     private static final String KEY_DAY = "hijri_day";
     private static final String KEY_MONTH = "hijri_month";
     private static final String KEY_YEAR = "hijri_year";
-    private static final String KEY_SUNSET_TIME = "sunset_time";
-    private static final String KEY_LAST_UPDATE = "last_update_date";
-    private static final String KEY_IS_FIRST_LAUNCH = "is_first_launch";
+    private static final String KEY_EPOCH_DAY = "hijri_epoch_day";
+    private static final long DAY_MILLIS = 1000 * 60 * 60 * 24;
+
+    // What an automatic increment or catch-up did
+    public enum Increment {
+        ADVANCED,
+        // On the 29th; the date waits for the user to report the moon
+        HELD,
+        // No sunset has passed since the date was last advanced
+        NOT_DUE
+    }
+
+    // Increment for each RolloverStateMachine effect
+    private static final Increment[] EFFECTS = {Increment.NOT_DUE, Increment.ADVANCED, Increment.HELD};
 
-    private SharedPreferences prefs;
     private Context context;
+    private final CalendarStateStore store;
+
+    // Loaded once per process from assets; stays null if the dataset is unreadable
+    private static HijriCalendar ummAlQuraCalendar;
+    private static boolean ummAlQuraLoaded;
+
+    // Shared so the yearly sunset table is computed once per location and zone
+    private static SunsetCalculator sunsetCalculator;
+
+    // Shared so a year's month-end crescent forecast is computed once per location
+    private static CrescentForecast crescentForecast;
+
+    // Prayer-time convention; Muslim World League with the Shafi Asr
+    private static final PrayerMethod PRAYER_METHOD = PrayerMethod.MWL;
+    private static final int ASR_FACTOR = PrayerTimes.ASR_SHAFI;
+
+    // Shared so a year of prayer times is computed once per location and zone
+    private static PrayerTimes prayerTimes;
+
+    // Hijri years of events kept after the current one
+    private static final int EVENT_YEARS_AHEAD = 2;
 
-    // Hijri month names in Arabic
-    private static final String[] ARABIC_MONTH_NAMES = {
-            "مُحَرَّم", "صَفَر", "رَبِيع ٱلْأَوَّل", "رَبِيع ٱلثَّانِي",
-            "جُمَادَىٰ ٱلْأُولَىٰ", "جُمَادَىٰ ٱلثَّانِيَة", "رَجَب", "شَعْبَان",
-            "رَمَضَان", "شَوَّال", "ذُو ٱلْقَعْدَة", "ذُو ٱلْحِجَّة"
-    };
+    // Shared so the events index is built once per calendar and span
+    private static IslamicEvents events;
+    private static HijriCalendar eventsCalendar;
 
-    // Hijri month names in English
-    private static final String[] ENGLISH_MONTH_NAMES = {
-            "MUHARRAM", "SAFAR", "RABI' AL-AWWAL", "RABI' AL-THANI",
-            "JUMADA AL-ULA", "JUMADA AL-THANI", "RAJAB", "SHA'BAN",
-            "RAMADAN", "SHAWWAL", "DHU AL-QI'DAH", "DHU AL-HIJJAH"
-    };
+    // Process-wide state shared by every manager instance. Writes are
+    // compare-and-set transitions on the store; the snapshot is a cache of
+    // the latest state and is rebuilt when its version falls behind.
+    private static volatile CalendarStateStore sharedStore;
+    private static volatile HijriDateSnapshot snapshot;
 
     public HijriDateManager(Context context) {
         this.context = context;
-        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.store = getStore(context);
+    }
+
+    // Store for this process, read from the state file on first use. Without
+    // the file, the preferences written by earlier versions are migrated into
+    // it once; a damaged file is set aside and the state starts over, since
+    // those preferences were cleared when the file was first written.
+    private CalendarStateStore getStore(Context context) {
+        CalendarStateStore current = sharedStore;
+        if (current == null) {
+            synchronized (HijriDateManager.class) {
+                current = sharedStore;
+                if (current == null) {
+                    HijriCalendar base = getBaseCalendar(context);
+                    File file = new File(context.getFilesDir(), CalendarStateFile.NAME);
+                    CalendarState state;
+                    try {
+                        state = CalendarStateFile.read(file, base);
+                    } catch (IOException e) {
+                        Log.w(TAG, "State file unreadable, starting over", e);
+                        CalendarStateFile.setAside(file);
+                        state = CalendarStateStore.initial(base);
+                    }
+                    if (state != null) {
+                        current = new CalendarStateStore(file, state);
+                    } else {
+                        current = migratePreferences(context, file, base);
+                    }
+                    sharedStore = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // First run with the state file: move everything earlier versions kept in
+    // preferences into it, then clear those keys. They stay until the file is
+    // written, so a failed write is retried on the next start.
+    private CalendarStateStore migratePreferences(Context context, File file, HijriCalendar base) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(CalendarStateStore.KEY_MIGRATED, false)) {
+            // Already migrated and the file is gone since
+            CalendarStateStore store = new CalendarStateStore(file, CalendarStateStore.initial(base));
+            store.flush();
+            return store;
+        }
+        CalendarStateStore store = new CalendarStateStore(file, CalendarStateStore.fromPreferences(prefs, base));
+        migrateManualDate(prefs, store);
+        if (store.flush()) {
+            SharedPreferences.Editor editor = prefs.edit()
+                    .remove(KEY_EPOCH_DAY)
+                    .remove(KEY_DAY)
+                    .remove(KEY_MONTH)
+                    .remove(KEY_YEAR);
+            CalendarStateStore.clearPreferences(editor);
+            editor.apply();
+        }
+        return store;
     }
 
-    // Save Hijri date
+    // Save Hijri date as observed today. This is recorded as a sighting
+    // correction, so earlier corrections and past dates are left untouched.
     public void saveHijriDate(int day, int month, int year) {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putInt(KEY_DAY, day);
-        editor.putInt(KEY_MONTH, month);
-        editor.putInt(KEY_YEAR, year);
-        editor.putString(KEY_LAST_UPDATE, getCurrentDate());
-        editor.apply();
+        saveHijriDate(store, day, month, year);
+    }
+
+    private void saveHijriDate(CalendarStateStore target, int day, int month, int year) {
+        target.commit(state -> correct(state, day, month, year));
+    }
+
+    // Save a date typed by the user. A 1st entered while the date is on the
+    // 29th or 30th means the new month was sighted, so it moves to the month
+    // after the current one whatever month was typed.
+    public void submitDate(int day, int month, int year) {
+        store.commit(state -> {
+            if (day == 1) {
+                int previous = getDate(state);
+                int previousDay = HijriCalendar.day(previous);
+                if (previousDay == 29 || previousDay == 30) {
+                    int next = nextMonth(previous);
+                    return correct(state, 1, HijriCalendar.month(next), HijriCalendar.year(next));
+                }
+            }
+            return correct(state, day, month, year);
+        });
+    }
+
+    // State with today corrected to the given date
+    private CalendarState correct(CalendarState state, int day, int month, int year) {
+        long today = getTodayEpochDay(state);
+
+        // Correct a copy: the state being replaced may still be in use by readers
+        AdjustedHijriCalendar current = state.getCalendar();
+        AdjustedHijriCalendar corrected = new AdjustedHijriCalendar(current.getBase(),
+                SightingAdjustments.decode(current.getAdjustments().encode(),
+                        current.getAdjustments().size()));
+        corrected.correct(today, year, month, day);
+
+        return state.withCalendar(corrected).withEpochDay(today, getCurrentUpdateDay());
+    }
+
+    // Current state as one immutable object; this is a single volatile read
+    // unless a write or the clock has made the last snapshot stale
+    public HijriDateSnapshot getSnapshot() {
+        long now = System.currentTimeMillis();
+        CalendarState state = store.get();
+        HijriDateSnapshot current = snapshot;
+        if (current != null && current.getVersion() == state.getVersion()
+                && now < current.getExpiresAtMillis()) {
+            return current;
+        }
+        // Two threads may rebuild at once; both results are equal, either may stay
+        current = readSnapshot(state, now);
+        snapshot = current;
+        return current;
+    }
+
+    // Drop the snapshot after the clock or time zone changed: what "today"
+    // and "until sunset" mean has moved even though the state has not
+    static void onClockChanged() {
+        snapshot = null;
+    }
+
+    // Committed state behind the snapshot
+    public CalendarState getState() {
+        return store.get();
+    }
+
+    // Epoch day whose Hijri conversion is the current date. It trails today
+    // only while the date is held on the 29th waiting for a sighting.
+    public long getHijriEpochDay() {
+        return getSnapshot().getEpochDay();
+    }
+
+    // Current Hijri date packed as in HijriCalendar.pack()
+    public int getHijriDate() {
+        return getSnapshot().getDate();
     }
 
     // Get current Hijri day
     public int getDay() {
-        return prefs.getInt(KEY_DAY, 1);
+        return getSnapshot().getDay();
     }
 
     // Get current Hijri month (1-12)
     public int getMonth() {
-        return prefs.getInt(KEY_MONTH, 1);
+        return getSnapshot().getMonth();
     }
 
     // Get current Hijri year
     public int getYear() {
-        return prefs.getInt(KEY_YEAR, 1447);
+        return getSnapshot().getYear();
+    }
+
+    // Stored epoch day minus the clock's: negative while the date is held on
+    // the 29th, otherwise 0
+    public long getHijriOffset() {
+        CalendarState state = store.get();
+        return state.isDateSet() ? state.getEpochDay() - getTodayEpochDay(state) : 0;
+    }
+
+    // Conversion engine behind this manager, with all sighting corrections applied
+    public AdjustedHijriCalendar getCalendar() {
+        return store.get().getCalendar();
+    }
+
+    // Build a snapshot of the given state for the given moment
+    private HijriDateSnapshot readSnapshot(CalendarState state, long nowMillis) {
+        ZoneId zone = SystemZone.get().getZone();
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), zone);
+        LocalDate today = now.toLocalDate();
+        int sunsetMinutes = getSunsetMinutes(state, today);
+
+        // The Hijri day turns at sunset; the snapshot is good until then, or
+        // until midnight brings a new sunset time once sunset has passed
+        boolean afterSunset = now.getHour() * 60 + now.getMinute() >= sunsetMinutes;
+        LocalDateTime expiresAt = afterSunset
+                ? today.plusDays(1).atStartOfDay()
+                : today.atTime(LocalTime.of(sunsetMinutes / 60, sunsetMinutes % 60));
+
+        long epochDay = state.isDateSet()
+                ? state.getEpochDay() : today.toEpochDay() + (afterSunset ? 1 : 0);
+        return new HijriDateSnapshot(epochDay, state.getCalendar().toHijri(epochDay), sunsetMinutes,
+                state.getVersion(), expiresAt.atZone(zone).toInstant().toEpochMilli());
+    }
+
+    // Current date of a state, packed as in HijriCalendar.pack()
+    private int getDate(CalendarState state) {
+        long epochDay = state.isDateSet() ? state.getEpochDay() : getTodayEpochDay(state);
+        return state.getCalendar().toHijri(epochDay);
+    }
+
+    // First day of the month after a packed date
+    private static int nextMonth(int date) {
+        int month = HijriCalendar.month(date) + 1;
+        int year = HijriCalendar.year(date);
+        if (month > 12) {
+            month = 1;
+            year++;
+        }
+        return HijriCalendar.pack(year, month, 1);
+    }
+
+    // Umm al-Qura where the dataset is available, otherwise the tabular calendar
+    private static HijriCalendar getBaseCalendar(Context context) {
+        HijriCalendar base = getUmmAlQuraCalendar(context);
+        return base != null ? base : TabularHijriCalendar.getInstance();
+    }
+
+    // Umm al-Qura calendar mapped from the bundled month-length dataset
+    public static synchronized HijriCalendar getUmmAlQuraCalendar(Context context) {
+        if (!ummAlQuraLoaded) {
+            ummAlQuraLoaded = true;
+            try {
+                ummAlQuraCalendar = new UmmAlQuraCalendar(mapAsset(context, UMM_AL_QURA_ASSET));
+            } catch (IOException | IllegalArgumentException e) {
+                Log.w(TAG, "Umm al-Qura dataset unavailable", e);
+            }
+        }
+        return ummAlQuraCalendar;
+    }
+
+    // Map an uncompressed asset read-only; compressed assets are copied into a direct buffer
+    private static ByteBuffer mapAsset(Context context, String name) throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(name);
+             FileInputStream input = descriptor.createInputStream()) {
+            return input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+        } catch (IOException compressed) {
+            try (InputStream input = context.getAssets().open(name)) {
+                byte[] bytes = new byte[4096];
+                ByteBuffer buffer = ByteBuffer.allocateDirect(input.available());
+                int read;
+                while ((read = input.read(bytes)) > 0) {
+                    buffer.put(bytes, 0, read);
+                }
+                buffer.flip();
+                return buffer;
+            }
+        }
     }
 
     // Get Arabic month name
     public String getArabicMonthName() {
-        int month = getMonth();
-        if (month >= 1 && month <= 12) {
-            return ARABIC_MONTH_NAMES[month - 1];
-        }
-        return ARABIC_MONTH_NAMES[0];
+        return HijriMonths.arabicName(getMonth());
     }
 
     // Get English month name
     public String getEnglishMonthName() {
-        int month = getMonth();
-        if (month >= 1 && month <= 12) {
-            return ENGLISH_MONTH_NAMES[month - 1];
-        }
-        return ENGLISH_MONTH_NAMES[0];
+        return HijriMonths.englishName(getMonth());
     }
 
     // Get full date string (e.g., "RAJAB 15 1447 A.H")
     public String getFullDateString() {
-        return getEnglishMonthName() + " " + getDay() + " " + getYear() + " A.H";
+        return HijriDateFormatter.fullDate(getHijriDate());
+    }
+
+    // Apply every sunset that passed since the date was last advanced, in one
+    // atomic step, so an alarm delayed by Doze or a phone that was off for
+    // days still lands on the right date. The stored epoch day is the day
+    // the last applied sunset began, so the number of missed sunsets is just
+    // the distance to today; RolloverStateMachine decides how far the date
+    // may go and stops it on the 29th.
+    public Increment catchUp() {
+        Increment[] outcome = new Increment[1];
+        store.commit(state -> {
+            long today = getTodayEpochDay(state);
+            if (!state.isDateSet()) {
+                // An unset date follows the clock by itself
+                outcome[0] = Increment.NOT_DUE;
+                return null;
+            }
+
+            HijriCalendar calendar = state.getCalendar();
+            long epochDay = RolloverStateMachine.advance(calendar, state.getEpochDay(), today);
+            outcome[0] = EFFECTS[RolloverStateMachine.effect(calendar, state.getEpochDay(), epochDay, today)];
+            return epochDay == state.getEpochDay()
+                    ? null : state.withEpochDay(epochDay, getCurrentUpdateDay());
+        });
+        return outcome[0];
+    }
+
+    // Use a manually entered sunset time instead of the saved location
+    public void saveManualSunsetTime(String time) {
+        int minutes = TimeOfDay.parse24Hour(time);
+        store.commit(state -> state.withManualSunsetMinutes(minutes)
+                .withLocation(Double.NaN, Double.NaN));
     }
 
-    // Increment date by one day
-    // Increment date by one day
-    public void incrementDate() {
-        int day = getDay();
-        int month = getMonth();
-        int year = getYear();
+    // Get sunset time: today's computed sunset when a location is saved,
+    // otherwise the time entered by the user
+    public String getSunsetTime() {
+        return TimeOfDay.format24Hour(getSnapshot().getSunsetMinutes());
+    }
 
-        day++;
+    // Sunset on the given date in minutes after midnight
+    public int getSunsetMinutes(LocalDate date) {
+        return getSunsetMinutes(store.get(), date);
+    }
 
-        // If we go past 30, move to next month
-        if (day > 30) {
-            day = 1;
-            month++;
-            if (month > 12) {
-                month = 1;
-                year++;
+    private int getSunsetMinutes(CalendarState state, LocalDate date) {
+        SunsetCalculator calculator = getSunsetCalculator(state);
+        if (calculator != null) {
+            int minutes = calculator.getSunsetMinutes(date);
+            if (minutes != SunsetCalculator.NO_SUNSET) {
+                return minutes;
             }
-            saveHijriDate(day, month, year);
-            return;
         }
 
-        // Check if we've reached end of month (will be set by user on 29th/30th)
-        // For automatic increment, we stop at 29 and wait for user input
-        if (day > 29) {
-            // Don't auto-increment past 29
-            return;
+        // No location, or no sunset there today: fall back to the manual time
+        return state.getManualSunsetMinutes();
+    }
+
+    // Save the location sunset is computed for
+    public void saveLocation(double latitude, double longitude) {
+        store.commit(state -> state.withLocation(latitude, longitude));
+    }
+
+    public boolean hasLocation() {
+        return store.get().hasLocation();
+    }
+
+    public double getLatitude() {
+        return store.get().getLatitude();
+    }
+
+    public double getLongitude() {
+        return store.get().getLongitude();
+    }
+
+    // Calculator for the state's location in the device's zone, or null without a location
+    private static SunsetCalculator getSunsetCalculator(CalendarState state) {
+        if (!state.hasLocation()) {
+            return null;
         }
+        double latitude = state.getLatitude();
+        double longitude = state.getLongitude();
+        ZoneId zone = SystemZone.get().getZone();
+        synchronized (HijriDateManager.class) {
+            SunsetCalculator calculator = sunsetCalculator;
+            if (calculator == null || calculator.getLatitude() != latitude
+                    || calculator.getLongitude() != longitude || !calculator.getZone().equals(zone)) {
+                calculator = new SunsetCalculator(latitude, longitude, zone);
+                sunsetCalculator = calculator;
+            }
+            return calculator;
+        }
+    }
 
-        saveHijriDate(day, month, year);
+    // Prayer times for the year of the given date at the saved location, in
+    // the device's zone, or null without a location
+    public PrayerTimes getPrayerTimes(LocalDate date) {
+        CalendarState state = store.get();
+        if (!state.hasLocation()) {
+            return null;
+        }
+        double latitude = state.getLatitude();
+        double longitude = state.getLongitude();
+        ZoneId zone = SystemZone.get().getZone();
+        synchronized (HijriDateManager.class) {
+            PrayerTimes times = prayerTimes;
+            if (times == null || !times.matches(date, latitude, longitude, zone, PRAYER_METHOD, ASR_FACTOR)) {
+                times = PrayerTimes.computeYear(date.getYear(), latitude, longitude, zone,
+                        PRAYER_METHOD, ASR_FACTOR);
+                prayerTimes = times;
+            }
+            return times;
+        }
     }
 
-    // Move to next month (called when user sets date to 1st)
-    public void moveToNextMonth() {
-        int month = getMonth();
-        int year = getYear();
+    // Significant days from the start of the current Hijri year through
+    // EVENT_YEARS_AHEAD more, placed by the corrected calendar. Rebuilt when a
+    // correction replaces the calendar or the year moves past the span.
+    public IslamicEvents getEvents() {
+        CalendarState state = store.get();
+        HijriCalendar calendar = state.getCalendar();
+        int year = HijriCalendar.year(getSnapshot().getDate());
+        synchronized (HijriDateManager.class) {
+            IslamicEvents current = events;
+            if (current == null || eventsCalendar != calendar || current.getFirstYear() != year) {
+                current = IslamicEvents.build(calendar, year, year + EVENT_YEARS_AHEAD);
+                events = current;
+                eventsCalendar = calendar;
+            }
+            return current;
+        }
+    }
 
-        month++;
-        if (month > 12) {
-            month = 1;
-            year++;
+    // "Eid al-Fitr in 12 days" for the next event from the current date, or
+    // an empty string when none is left in the span
+    public String getEventCountdown() {
+        IslamicEvents index = getEvents();
+        long epochDay = getHijriEpochDay();
+        int next = index.next(epochDay);
+        if (next < 0) {
+            return "";
         }
+        long days = index.epochDayAt(next) - epochDay;
+        String name = IslamicEvents.name(index.kindAt(next));
+        if (days == 0) {
+            return name + " today";
+        }
+        return days == 1 ? name + " tomorrow" : name + " in " + days + " days";
+    }
 
-        saveHijriDate(1, month, year);
+    // Crescent visibility at the saved location for every 29th of a Hijri
+    // year, or null without a location. The whole year is worked out on first
+    // use and again only when the location or a month-end moves.
+    public CrescentForecast getCrescentForecast(int year) {
+        CalendarState state = store.get();
+        if (!state.hasLocation()) {
+            return null;
+        }
+        HijriCalendar calendar = state.getCalendar();
+        synchronized (HijriDateManager.class) {
+            CrescentForecast forecast = crescentForecast;
+            if (forecast == null || !forecast.matches(year, state.getLatitude(), state.getLongitude())
+                    || !sameMonthEnds(forecast, calendar)) {
+                forecast = CrescentForecast.forYear(calendar, year, state.getLatitude(), state.getLongitude());
+                crescentForecast = forecast;
+            }
+            return forecast;
+        }
     }
 
-    // Save sunset time
-    public void saveSunsetTime(String time) {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putString(KEY_SUNSET_TIME, time);
-        editor.apply();
+    private static boolean sameMonthEnds(CrescentForecast forecast, HijriCalendar calendar) {
+        for (int month = 1; month <= 12; month++) {
+            if (forecast.getEvening(month) != calendar.toEpochDay(forecast.getYear(), month, 29)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    // Get sunset time
-    public String getSunsetTime() {
-        return prefs.getString(KEY_SUNSET_TIME, "18:00");
+    // Date the crescent forecast suggests while the date is held on the
+    // 29th, packed as in HijriCalendar.pack(), or 0 when there is nothing to suggest
+    public int getSuggestedDate() {
+        if (getHijriOffset() >= 0) {
+            return 0;
+        }
+        int held = getHijriDate();
+        CrescentForecast forecast = getCrescentForecast(HijriCalendar.year(held));
+        int month = HijriCalendar.month(held);
+        if (forecast == null || forecast.getYallopClass(month) == CrescentVisibility.UNKNOWN) {
+            return 0;
+        }
+        return forecast.suggestedDate(month);
     }
 
     // Check if date has been set
     public boolean isDateSet() {
-        return prefs.contains(KEY_DAY);
+        return store.get().isDateSet();
+    }
+
+    // Day number used to track updates
+    private static long getCurrentUpdateDay() {
+        return System.currentTimeMillis() / DAY_MILLIS;
     }
 
-    // Get current date string for tracking updates
-    private String getCurrentDate() {
-        return String.valueOf(System.currentTimeMillis() / (1000 * 60 * 60 * 24));
+    // Today's epoch day, moved to tomorrow once the sunset time has passed
+    // since the Hijri day starts at sunset
+    private long getTodayEpochDay() {
+        return getTodayEpochDay(store.get());
+    }
+
+    private long getTodayEpochDay(CalendarState state) {
+        LocalDateTime now = LocalDateTime.now(SystemZone.get().getZone());
+        long epochDay = now.toLocalDate().toEpochDay();
+
+        if (now.getHour() * 60 + now.getMinute() >= getSunsetMinutes(state, now.toLocalDate())) {
+            epochDay++;
+        }
+        return epochDay;
+    }
+
+    // Carry over a date stored by earlier versions: the manually typed
+    // day/month/year, or the epoch day in the tabular calendar. Either one
+    // described today, so it becomes today's sighting correction.
+    private void migrateManualDate(SharedPreferences prefs, CalendarStateStore target) {
+        int date;
+        if (prefs.contains(KEY_EPOCH_DAY)) {
+            date = TabularHijriCalendar.getInstance().toHijri(prefs.getLong(KEY_EPOCH_DAY, 0));
+        } else if (prefs.contains(KEY_DAY)) {
+            date = HijriCalendar.pack(prefs.getInt(KEY_YEAR, 1447), prefs.getInt(KEY_MONTH, 1),
+                    prefs.getInt(KEY_DAY, 1));
+        } else {
+            return;
+        }
+        try {
+            saveHijriDate(target, HijriCalendar.day(date), HijriCalendar.month(date), HijriCalendar.year(date));
+        } catch (IllegalArgumentException e) {
+            // Too far from the calendar to be a sighting: start from the computed date
+            Log.w(TAG, "Dropped stored date " + HijriCalendar.day(date) + "/" + HijriCalendar.month(date)
+                    + "/" + HijriCalendar.year(date), e);
+        }
     }
 
     // Check if this is first launch
     public boolean isFirstLaunch() {
-        return prefs.getBoolean(KEY_IS_FIRST_LAUNCH, true);
+        return store.get().isFirstLaunch();
     }
 
     // Mark first launch as completed
     public void setFirstLaunchCompleted() {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putBoolean(KEY_IS_FIRST_LAUNCH, false);
-        editor.apply();
+        store.commit(state -> state.isFirstLaunch() ? state.withFirstLaunch(false) : null);
     }
 
     // Get last update date
     public String getLastUpdateDate() {
-        return prefs.getString(KEY_LAST_UPDATE, getCurrentDate());
-    }
-
-    // Check if date should be updated (if current date is different from last update)
-    public boolean shouldUpdateDate() {
-        String lastUpdate = getLastUpdateDate();
-        String currentDate = getCurrentDate();
-        return !lastUpdate.equals(currentDate);
-    }
-
-    // Mark date as updated today
-    public void markDateUpdated() {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putString(KEY_LAST_UPDATE, getCurrentDate());
-        editor.apply();
+        long lastUpdateDay = store.get().getLastUpdateDay();
+        return String.valueOf(lastUpdateDay != CalendarState.UNSET ? lastUpdateDay : getCurrentUpdateDay());
     }
 
     // Convert Western numerals to Arabic-Indic numerals
     public String getArabicDay() {
-        int day = getDay();
-        return convertToArabicNumerals(String.valueOf(day));
-    }
-
-    // Helper method to convert numerals
-    private String convertToArabicNumerals(String number) {
-        char[] arabicNumerals = {'٠', '١', '٢', '٣', '٤', '٥', '٦', '٧', '٨', '٩'};
-        StringBuilder result = new StringBuilder();
-
-        for (char c : number.toCharArray()) {
-            if (Character.isDigit(c)) {
-                result.append(arabicNumerals[c - '0']);
-            } else {
-                result.append(c);
-            }
-        }
-
-        return result.toString();
+        return HijriDateFormatter.day(getDay(), true);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,243 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.net.Uri;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.IslamicEvents;
+import com.islamiccalendar.core.RangeConverter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Read-only Hijri dates for other apps that declare READ_PERMISSION. No
+// column reveals the saved location, so sunset times are not served:
+//   content://com.islamiccalendar.islamiccalendarapp.hijri/today
+//   content://com.islamiccalendar.islamiccalendarapp.hijri/range?from=2025-03-01&to=2025-03-31
+//   content://com.islamiccalendar.islamiccalendarapp.hijri/events[?from=&to=]
+// from and to are inclusive, as ISO dates or epoch days. Results are cached
+// as primitive column arrays: today until the snapshot changes (a write or
+// the next sunset), ranges and events until the state version or calendar
+// does. A client polling every few seconds is handed a new HijriDateCursor
+// window over the same arrays and nothing is recomputed.
+public class HijriDateProvider extends ContentProvider {
+
+    public static final String AUTHORITY = "com.islamiccalendar.islamiccalendarapp.hijri";
+    public static final String READ_PERMISSION = "com.islamiccalendar.islamiccalendarapp.permission.READ_HIJRI_DATES";
+
+    // Columns
+    public static final String COLUMN_ID = "_id";
+    public static final String COLUMN_EPOCH_DAY = "epoch_day";
+    public static final String COLUMN_HIJRI_YEAR = "hijri_year";
+    public static final String COLUMN_HIJRI_MONTH = "hijri_month";
+    public static final String COLUMN_HIJRI_DAY = "hijri_day";
+    public static final String COLUMN_EVENT_KIND = "event_kind";
+    public static final String COLUMN_EVENT_NAME = "event_name";
+
+    // Longest range one query may convert: a century
+    static final int MAX_RANGE_DAYS = 36525;
+    // Ranges kept per state version, replaced oldest first
+    private static final int RANGE_SLOTS = 8;
+
+    private static final int TODAY = 1;
+    private static final int RANGE = 2;
+    private static final int EVENTS = 3;
+
+    private static final String[] TODAY_COLUMNS = {COLUMN_ID, COLUMN_EPOCH_DAY,
+            COLUMN_HIJRI_YEAR, COLUMN_HIJRI_MONTH, COLUMN_HIJRI_DAY};
+    private static final int[] TODAY_SOURCES = {HijriDateCursor.ID, HijriDateCursor.EPOCH_DAY,
+            HijriDateCursor.HIJRI_YEAR, HijriDateCursor.HIJRI_MONTH, HijriDateCursor.HIJRI_DAY};
+    private static final String[] RANGE_COLUMNS = {COLUMN_ID, COLUMN_EPOCH_DAY,
+            COLUMN_HIJRI_YEAR, COLUMN_HIJRI_MONTH, COLUMN_HIJRI_DAY};
+    private static final int[] RANGE_SOURCES = {HijriDateCursor.ID, HijriDateCursor.EPOCH_DAY,
+            HijriDateCursor.HIJRI_YEAR, HijriDateCursor.HIJRI_MONTH, HijriDateCursor.HIJRI_DAY};
+    private static final String[] EVENT_COLUMNS = {COLUMN_ID, COLUMN_EPOCH_DAY,
+            COLUMN_HIJRI_YEAR, COLUMN_HIJRI_MONTH, COLUMN_HIJRI_DAY, COLUMN_EVENT_KIND, COLUMN_EVENT_NAME};
+    private static final int[] EVENT_SOURCES = {HijriDateCursor.ID, HijriDateCursor.EPOCH_DAY,
+            HijriDateCursor.HIJRI_YEAR, HijriDateCursor.HIJRI_MONTH, HijriDateCursor.HIJRI_DAY,
+            HijriDateCursor.EXTRA, HijriDateCursor.EVENT_NAME};
+
+    private static final UriMatcher matcher = new UriMatcher(UriMatcher.NO_MATCH);
+
+    static {
+        matcher.addURI(AUTHORITY, "today", TODAY);
+        matcher.addURI(AUTHORITY, "range", RANGE);
+        matcher.addURI(AUTHORITY, "events", EVENTS);
+    }
+
+    private HijriDateManager dateManager;
+
+    // Today's row, for the snapshot it was made from
+    private HijriDateSnapshot todaySnapshot;
+    private long[] todayEpochDay;
+    private int[] todayHijri;
+
+    // Recent ranges, all of state version rangeVersion
+    private long rangeVersion = -1;
+    private final long[] rangeFirst = new long[RANGE_SLOTS];
+    private final long[][] rangeEpochDays = new long[RANGE_SLOTS][];
+    private final int[][] rangeHijri = new int[RANGE_SLOTS][];
+    private int nextRangeSlot;
+
+    // Events with their Hijri dates, for the IslamicEvents they were made from
+    private IslamicEvents events;
+    private long[] eventEpochDays;
+    private int[] eventHijri;
+    private int[] eventKinds;
+
+    @Override
+    public boolean onCreate() {
+        // The state file is read on the first query, not while the app starts
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                        String sortOrder) {
+        switch (matcher.match(uri)) {
+            case TODAY:
+                return today(projection);
+            case RANGE:
+                return range(uri, projection);
+            case EVENTS:
+                return events(uri, projection);
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+    }
+
+    private synchronized HijriDateManager getDateManager() {
+        if (dateManager == null) {
+            dateManager = new HijriDateManager(getContext().getApplicationContext());
+        }
+        return dateManager;
+    }
+
+    private synchronized Cursor today(String[] projection) {
+        HijriDateSnapshot snapshot = getDateManager().getSnapshot();
+        if (snapshot != todaySnapshot) {
+            todayEpochDay = new long[]{snapshot.getEpochDay()};
+            todayHijri = new int[]{snapshot.getDate()};
+            todaySnapshot = snapshot;
+        }
+        return new HijriDateCursor(TODAY_COLUMNS, TODAY_SOURCES, projection,
+                todayEpochDay, todayHijri, null, 0, 1);
+    }
+
+    private synchronized Cursor range(Uri uri, String[] projection) {
+        long from = parseDay(uri, "from", Long.MIN_VALUE);
+        long to = parseDay(uri, "to", Long.MIN_VALUE);
+        if (from == Long.MIN_VALUE || to == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("range needs from and to: " + uri);
+        }
+        if (to < from || to - from >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("range must be 1 to " + MAX_RANGE_DAYS + " days: " + uri);
+        }
+        int count = (int) (to - from + 1);
+
+        CalendarState state = getDateManager().getState();
+        if (state.getVersion() != rangeVersion) {
+            for (int i = 0; i < RANGE_SLOTS; i++) {
+                rangeEpochDays[i] = null;
+                rangeHijri[i] = null;
+            }
+            rangeVersion = state.getVersion();
+        }
+        for (int i = 0; i < RANGE_SLOTS; i++) {
+            if (rangeHijri[i] != null && rangeFirst[i] == from && rangeHijri[i].length == count) {
+                return new HijriDateCursor(RANGE_COLUMNS, RANGE_SOURCES, projection,
+                        rangeEpochDays[i], rangeHijri[i], null, 0, count);
+            }
+        }
+
+        long[] epochDays = new long[count];
+        int[] hijri = new int[count];
+        for (int i = 0; i < count; i++) {
+            epochDays[i] = from + i;
+        }
+        // Throws IllegalArgumentException outside the calendar's range
+        new RangeConverter(state.getCalendar()).convertRange(from, count, hijri, 0);
+
+        int slot = nextRangeSlot;
+        nextRangeSlot = (slot + 1) % RANGE_SLOTS;
+        rangeFirst[slot] = from;
+        rangeEpochDays[slot] = epochDays;
+        rangeHijri[slot] = hijri;
+        return new HijriDateCursor(RANGE_COLUMNS, RANGE_SOURCES, projection, epochDays, hijri, null, 0, count);
+    }
+
+    // Events from the current date onwards, or within from/to when given
+    private synchronized Cursor events(Uri uri, String[] projection) {
+        HijriDateManager manager = getDateManager();
+        IslamicEvents current = manager.getEvents();
+        if (current != events) {
+            HijriCalendar calendar = manager.getCalendar();
+            int size = current.size();
+            long[] epochDays = new long[size];
+            int[] hijri = new int[size];
+            int[] kinds = new int[size];
+            for (int i = 0; i < size; i++) {
+                epochDays[i] = current.epochDayAt(i);
+                hijri[i] = calendar.toHijri(epochDays[i]);
+                kinds[i] = current.kindAt(i);
+            }
+            eventEpochDays = epochDays;
+            eventHijri = hijri;
+            eventKinds = kinds;
+            events = current;
+        }
+
+        long from = parseDay(uri, "from", manager.getHijriEpochDay());
+        long to = parseDay(uri, "to", Long.MAX_VALUE - 1);
+        int start = current.rangeStart(from);
+        int end = to < from ? start : current.rangeEnd(to);
+        return new HijriDateCursor(EVENT_COLUMNS, EVENT_SOURCES, projection,
+                eventEpochDays, eventHijri, eventKinds, start, end - start);
+    }
+
+    // Query parameter as an epoch day, from an ISO date or a number
+    private static long parseDay(Uri uri, String name, long missing) {
+        String value = uri.getQueryParameter(name);
+        if (value == null || value.isEmpty()) {
+            return missing;
+        }
+        try {
+            return value.indexOf('-', 1) > 0
+                    ? LocalDate.parse(value).toEpochDay() : Long.parseLong(value);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + name + " date: " + value);
+        }
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        switch (matcher.match(uri)) {
+            case TODAY:
+                return "vnd.android.cursor.item/vnd." + AUTHORITY + ".today";
+            case RANGE:
+                return "vnd.android.cursor.dir/vnd." + AUTHORITY + ".range";
+            case EVENTS:
+                return "vnd.android.cursor.dir/vnd." + AUTHORITY + ".events";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException("Hijri dates are read-only");
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Hijri dates are read-only");
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Hijri dates are read-only");
+    }
+}
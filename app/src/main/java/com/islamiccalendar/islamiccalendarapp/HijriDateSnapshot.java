@@ -0,0 +1,66 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import com.islamiccalendar.core.HijriCalendar;
+
+// Immutable view of the stored date and today's sunset, shared by every
+// HijriDateManager in the process. A new one is built after each write, or
+// once the moment it was computed for has passed (next sunset or midnight),
+// since an unset date and a location-based sunset both follow the clock.
+public final class HijriDateSnapshot {
+
+    private final long epochDay;
+    private final int date;
+    private final int day;
+    private final int month;
+    private final int year;
+    private final int sunsetMinutes;
+    private final long version;
+    private final long expiresAtMillis;
+
+    HijriDateSnapshot(long epochDay, int date, int sunsetMinutes, long version, long expiresAtMillis) {
+        this.epochDay = epochDay;
+        this.date = date;
+        this.day = HijriCalendar.day(date);
+        this.month = HijriCalendar.month(date);
+        this.year = HijriCalendar.year(date);
+        this.sunsetMinutes = sunsetMinutes;
+        this.version = version;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    // Epoch day whose Hijri conversion is the current date
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    // Current date packed as in HijriCalendar.pack()
+    public int getDate() {
+        return date;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    // Today's sunset in minutes after midnight
+    public int getSunsetMinutes() {
+        return sunsetMinutes;
+    }
+
+    // Number of writes this snapshot reflects; changes whenever the stored state does
+    public long getVersion() {
+        return version;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -2,7 +2,10 @@ package com.islamiccalendar.islamiccalendarapp;
 
 import android.Manifest;
 import android.app.AlertDialog;
+import android.content.Context;
+import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.widget.Button;
@@ -21,6 +24,22 @@ import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.HijriDateFormatter;
+import com.islamiccalendar.core.HijriMonths;
+import com.islamiccalendar.core.IcsExporter;
+import com.islamiccalendar.core.PrayerTimes;
+import com.islamiccalendar.core.TimeOfDay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 public class MainActivity extends AppCompatActivity {
@@ -29,13 +48,30 @@ public class MainActivity extends AppCompatActivity {
     private TextView arabicMonthName;
     private TextView dayNumber;
     private TextView fullDateDisplay;
+    private TextView eventCountdown;
     private EditText hijriDateInput;
     private EditText sunsetTimeInput;
     private Button submitDateButton;
     private Button submitTimeButton;
+    private EditText locationInput;
+    private Button submitLocationButton;
+    private TextView prayerTimesDisplay;
+    private Button openCalendarButton;
+    private Button importAnniversariesButton;
+    private Button exportCalendarButton;
     private TextView developerCredit;
 
     private static final int NOTIFICATION_PERMISSION_CODE = 100;
+    private static final int IMPORT_ANNIVERSARIES_CODE = 101;
+    private static final int EXPORT_CALENDAR_CODE = 102;
+    // Gregorian years of days in an exported calendar
+    private static final int EXPORT_YEARS = 20;
+
+    // Reused for date text so display refreshes do not allocate
+    private final char[] fullDateChars = new char[HijriDateFormatter.MAX_FULL_DATE_LENGTH];
+    private final StringBuilder dateInputText = new StringBuilder();
+    private final StringBuilder prayerTimesText = new StringBuilder();
+    private final int[] todaysPrayers = new int[PrayerTimes.PRAYERS];
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,10 +85,17 @@ public class MainActivity extends AppCompatActivity {
         arabicMonthName = findViewById(R.id.arabicMonthName);
         dayNumber = findViewById(R.id.dayNumber);
         fullDateDisplay = findViewById(R.id.fullDateDisplay);
+        eventCountdown = findViewById(R.id.eventCountdown);
         hijriDateInput = findViewById(R.id.hijriDateInput);
         sunsetTimeInput = findViewById(R.id.sunsetTimeInput);
         submitDateButton = findViewById(R.id.submitDateButton);
         submitTimeButton = findViewById(R.id.submitTimeButton);
+        locationInput = findViewById(R.id.locationInput);
+        submitLocationButton = findViewById(R.id.submitLocationButton);
+        prayerTimesDisplay = findViewById(R.id.prayerTimesDisplay);
+        openCalendarButton = findViewById(R.id.openCalendarButton);
+        importAnniversariesButton = findViewById(R.id.importAnniversariesButton);
+        exportCalendarButton = findViewById(R.id.exportCalendarButton);
         developerCredit = findViewById(R.id.developerCredit);
 
         // Check if first launch and request notification permission
@@ -67,10 +110,17 @@ public class MainActivity extends AppCompatActivity {
         // Set sunset time from saved preferences
         // Display sunset time in 12-hour format with AM/PM
         sunsetTimeInput.setText(convertTo12HourFormat(dateManager.getSunsetTime()));
+        if (dateManager.hasLocation()) {
+            locationInput.setText(formatLocation(dateManager.getLatitude(), dateManager.getLongitude()));
+        }
 
         // Setup button listeners
         submitDateButton.setOnClickListener(v -> handleDateSubmit());
         submitTimeButton.setOnClickListener(v -> handleTimeSubmit());
+        submitLocationButton.setOnClickListener(v -> handleLocationSubmit());
+        openCalendarButton.setOnClickListener(v -> startActivity(new Intent(this, CalendarActivity.class)));
+        importAnniversariesButton.setOnClickListener(v -> pickAnniversaryFile());
+        exportCalendarButton.setOnClickListener(v -> pickExportFile());
         // Setup developer credit click listener
         developerCredit.setOnClickListener(v -> {
             // For now, just show a toast message
@@ -83,15 +133,63 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateDisplay() {
-        arabicMonthName.setText(dateManager.getArabicMonthName());
-        dayNumber.setText(dateManager.getArabicDay()); // Use Arabic numerals
-        fullDateDisplay.setText(dateManager.getFullDateString());
-
-        // Update the input field to show current date with hyphens
-        String currentDate = dateManager.getDay() + " - " +
-                dateManager.getMonth() + " - " +
-                dateManager.getYear();
-        hijriDateInput.setText(currentDate);
+        int date = dateManager.getHijriDate();
+        int day = HijriCalendar.day(date);
+        int month = HijriCalendar.month(date);
+        int year = HijriCalendar.year(date);
+
+        arabicMonthName.setText(HijriMonths.arabicName(month));
+        dayNumber.setText(HijriDateFormatter.day(day, true)); // Use Arabic numerals
+        fullDateDisplay.setText(fullDateChars, 0, HijriDateFormatter.writeFullDate(date, fullDateChars));
+        eventCountdown.setText(dateManager.getEventCountdown());
+
+        // Update the input field to show current date with hyphens. While the
+        // date is held on the 29th, offer the date the crescent forecast suggests.
+        int suggested = dateManager.getSuggestedDate();
+        if (suggested != 0) {
+            day = HijriCalendar.day(suggested);
+            month = HijriCalendar.month(suggested);
+            year = HijriCalendar.year(suggested);
+        }
+        dateInputText.setLength(0);
+        dateInputText.append(day).append(" - ").append(month).append(" - ").append(year);
+        hijriDateInput.setText(dateInputText);
+
+        updatePrayerTimes();
+    }
+
+    // Today's prayer times and the next one, when a location is saved
+    private void updatePrayerTimes() {
+        LocalDate today = LocalDate.now(SystemZone.get().getZone());
+        PrayerTimes times = dateManager.getPrayerTimes(today);
+        if (times == null) {
+            prayerTimesDisplay.setText("");
+            return;
+        }
+
+        times.getDay(today, todaysPrayers);
+        prayerTimesText.setLength(0);
+        for (int prayer = 0; prayer < PrayerTimes.PRAYERS; prayer++) {
+            if (todaysPrayers[prayer] == PrayerTimes.NO_TIME) {
+                continue;
+            }
+            prayerTimesText.append(PrayerTimes.name(prayer)).append("  ")
+                    .append(TimeOfDay.format12Hour(Math.floorMod(todaysPrayers[prayer], 1440))).append('\n');
+        }
+        LocalTime now = LocalTime.now(SystemZone.get().getZone());
+        int minuteOfDay = now.getHour() * 60 + now.getMinute();
+        int next = times.nextPrayer(today, minuteOfDay);
+        if (next < 0 && today.getDayOfYear() == today.lengthOfYear()) {
+            // After the last Isha of the year: the next prayer is in next year's times
+            LocalDate tomorrow = today.plusDays(1);
+            times = dateManager.getPrayerTimes(tomorrow);
+            next = times != null ? times.nextPrayer(tomorrow, minuteOfDay - 1440) : -1;
+        }
+        if (next >= 0) {
+            prayerTimesText.append("Next: ").append(PrayerTimes.name(PrayerTimes.prayerAt(next)))
+                    .append("  ").append(TimeOfDay.format12Hour(Math.floorMod(times.timeAt(next), 1440)));
+        }
+        prayerTimesDisplay.setText(prayerTimesText);
     }
 
 
@@ -128,31 +226,32 @@ public class MainActivity extends AppCompatActivity {
                 return;
             }
 
-            if (year < 1) {
+            HijriCalendar calendar = dateManager.getCalendar();
+            if (year < calendar.getMinYear() || year > calendar.getMaxYear()) {
                 Toast.makeText(this, "Please enter a valid year", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            // Check if moving to next month
-            // When user sets day to 1 after being on day 29 or 30, move to next month
-            int previousDay = dateManager.getDay();
-            if (day == 1 && (previousDay == 29 || previousDay == 30)) {
-                int currentMonth = dateManager.getMonth();
-                int currentYear = dateManager.getYear();
-
-                // Move to next month
-                int newMonth = currentMonth + 1;
-                int newYear = currentYear;
-
-                if (newMonth > 12) {
-                    newMonth = 1;
-                    newYear++;
-                }
+            // Only the current month can gain a 30th day, when its crescent was not seen
+            int current = dateManager.getHijriDate();
+            boolean extendsCurrentMonth = day == 30 && HijriCalendar.year(current) == year
+                    && HijriCalendar.month(current) == month;
+            if (day > calendar.lengthOfMonth(year, month) && !extendsCurrentMonth) {
+                Toast.makeText(this, "This month has only " + calendar.lengthOfMonth(year, month) + " days",
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-                dateManager.saveHijriDate(1, newMonth, newYear);
-            } else {
-                // Save date normally
-                dateManager.saveHijriDate(day, month, year);
+            // When user sets day to 1 after being on day 29 or 30, move to next month.
+            // The check and the save are one step, so a sunset alarm firing in
+            // between cannot change the day it was based on.
+            try {
+                dateManager.submitDate(day, month, year);
+            } catch (IllegalArgumentException e) {
+                // A sighting moves a month by a day at most and keeps it 29 or 30 days
+                Toast.makeText(this, "That date is more than a day away from the calendar",
+                        Toast.LENGTH_LONG).show();
+                return;
             }
 
             // Update display
@@ -162,8 +261,10 @@ public class MainActivity extends AppCompatActivity {
             // Update widget
             CalendarWidget.updateWidget(this);
 
-            // Reschedule alarm with potentially new date
+            // Reschedule alarms with potentially new date
             AlarmScheduler.scheduleNextAlarm(this);
+            Context appContext = getApplicationContext();
+            BackgroundWork.submit(() -> AnniversaryScheduler.schedule(appContext));
 
             Toast.makeText(this, "Date updated successfully", Toast.LENGTH_SHORT).show();
 
@@ -183,36 +284,172 @@ public class MainActivity extends AppCompatActivity {
         // Check if time contains AM/PM
         boolean hasAMPM = time.contains("AM") || time.contains("PM");
 
-        String time24;
+        int minutes;
         if (hasAMPM) {
             // Validate 12-hour format (H:MM AM/PM or HH:MM AM/PM)
-            if (!time.matches("^(1[0-2]|0?[1-9]):[0-5][0-9]\\s*(AM|PM)$")) {
+            minutes = TimeOfDay.parse12Hour(time);
+            if (minutes == TimeOfDay.INVALID) {
                 Toast.makeText(this, "Please enter time in format: HH:MM AM/PM", Toast.LENGTH_SHORT).show();
                 return;
             }
-            // Convert to 24-hour format for storage
-            time24 = convertTo24HourFormat(time);
         } else {
             // Validate 24-hour format
-            if (!time.matches("^([0-1]?[0-9]|2[0-3]):[0-5][0-9]$")) {
+            minutes = TimeOfDay.parse24Hour(time);
+            if (minutes == TimeOfDay.INVALID) {
                 Toast.makeText(this, "Please enter time in format: HH:MM AM/PM or HH:MM (24-hour)", Toast.LENGTH_SHORT).show();
                 return;
             }
-            time24 = time;
         }
+        // Convert to 24-hour format for storage
+        String time24 = TimeOfDay.format24Hour(minutes);
 
-        // Save sunset time in 24-hour format
-        dateManager.saveSunsetTime(time24);
+        // Save sunset time in 24-hour format; a manual time replaces the location
+        dateManager.saveManualSunsetTime(time24);
+        locationInput.setText("");
+        updatePrayerTimes();
 
         // Update display to show 12-hour format
         sunsetTimeInput.setText(convertTo12HourFormat(time24));
 
-        // Reschedule daily updates with new time
+        // Reschedule daily updates and the anniversary alarm with new time
         scheduleDailyUpdates();
+        Context appContext = getApplicationContext();
+        BackgroundWork.submit(() -> AnniversaryScheduler.schedule(appContext));
 
         Toast.makeText(this, "Sunset time updated successfully", Toast.LENGTH_SHORT).show();
     }
 
+    private void handleLocationSubmit() {
+        String input = locationInput.getText().toString().trim();
+
+        // Parse input (format: latitude, longitude)
+        String[] parts = input.split("[,\\s]+");
+        if (parts.length != 2) {
+            Toast.makeText(this, "Please enter location as: latitude, longitude", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        try {
+            double latitude = Double.parseDouble(parts[0]);
+            double longitude = Double.parseDouble(parts[1]);
+
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                Toast.makeText(this, "Latitude must be -90 to 90 and longitude -180 to 180", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            dateManager.saveLocation(latitude, longitude);
+
+            // Show today's computed sunset in the time field
+            locationInput.setText(formatLocation(latitude, longitude));
+            sunsetTimeInput.setText(convertTo12HourFormat(dateManager.getSunsetTime()));
+            updatePrayerTimes();
+
+            // Reschedule daily updates and the anniversary alarm for the computed sunset
+            scheduleDailyUpdates();
+            Context appContext = getApplicationContext();
+            BackgroundWork.submit(() -> AnniversaryScheduler.schedule(appContext));
+
+            Toast.makeText(this, "Sunset will follow your location", Toast.LENGTH_SHORT).show();
+        } catch (NumberFormatException e) {
+            Toast.makeText(this, "Please enter valid numbers", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // Let the user pick a CSV of "name,day,month[,kind]" rows
+    private void pickAnniversaryFile() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/*");
+        startActivityForResult(intent, IMPORT_ANNIVERSARIES_CODE);
+    }
+
+    // Let the user choose where the iCalendar file goes
+    private void pickExportFile() {
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/calendar");
+        intent.putExtra(Intent.EXTRA_TITLE, "hijri-calendar.ics");
+        startActivityForResult(intent, EXPORT_CALENDAR_CODE);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null) {
+            return;
+        }
+        if (requestCode == EXPORT_CALENDAR_CODE) {
+            exportCalendar(data.getData());
+            return;
+        }
+        if (requestCode != IMPORT_ANNIVERSARIES_CODE) {
+            return;
+        }
+
+        // Streamed on the bulk thread; only the result comes back here
+        Uri uri = data.getData();
+        Context appContext = getApplicationContext();
+        WeakReference<MainActivity> screen = new WeakReference<>(this);
+        BackgroundWork.submitBulk(() -> {
+            String message;
+            try (InputStream input = appContext.getContentResolver().openInputStream(uri)) {
+                if (input == null) {
+                    throw new IOException("No data in " + uri);
+                }
+                int skipped = AnniversaryScheduler.importCsv(appContext, input);
+                message = "Imported anniversaries: "
+                        + AnniversaryScheduler.get(appContext).size() + " in total"
+                        + (skipped > 0 ? ", " + skipped + " rows skipped" : "");
+            } catch (IOException e) {
+                message = "Could not import anniversaries";
+            }
+            showResult(screen, appContext, message, Toast.LENGTH_LONG);
+        });
+    }
+
+    // Stream EXPORT_YEARS of days from today, with the user's corrections, on the bulk thread
+    private void exportCalendar(Uri uri) {
+        Context appContext = getApplicationContext();
+        WeakReference<MainActivity> screen = new WeakReference<>(this);
+        IcsExporter exporter = new IcsExporter(dateManager.getCalendar());
+        LocalDate today = LocalDate.now(SystemZone.get().getZone());
+        long first = today.toEpochDay();
+        long last = today.plusYears(EXPORT_YEARS).toEpochDay() - 1;
+        BackgroundWork.submitBulk(() -> {
+            String message;
+            try (OutputStream output = appContext.getContentResolver().openOutputStream(uri)) {
+                if (output == null) {
+                    throw new IOException("Cannot write " + uri);
+                }
+                exporter.exportParallel(first, last, Channels.newChannel(output), ForkJoinPool.commonPool());
+                message = "Calendar exported";
+            } catch (IOException e) {
+                message = "Could not export the calendar";
+            }
+            showResult(screen, appContext, message, Toast.LENGTH_SHORT);
+        });
+    }
+
+    // Toast the outcome of a bulk job if its screen is still showing. The job
+    // holds the activity only weakly, and the toast uses the app context.
+    private static void showResult(WeakReference<MainActivity> screen, Context appContext,
+                                   String message, int duration) {
+        MainActivity activity = screen.get();
+        if (activity == null || activity.isFinishing() || activity.isDestroyed()) {
+            return;
+        }
+        activity.runOnUiThread(() -> {
+            if (!activity.isFinishing() && !activity.isDestroyed()) {
+                Toast.makeText(appContext, message, duration).show();
+            }
+        });
+    }
+
+    private String formatLocation(double latitude, double longitude) {
+        return String.format(Locale.US, "%.4f, %.4f", latitude, longitude);
+    }
+
     private void scheduleDailyUpdates() {
         // Schedule exact alarm for sunset time
         AlarmScheduler.scheduleNextAlarm(this);
@@ -255,48 +492,7 @@ public class MainActivity extends AppCompatActivity {
 
     // Convert 24-hour time to 12-hour format with AM/PM
     private String convertTo12HourFormat(String time24) {
-        try {
-            String[] parts = time24.split(":");
-            int hour = Integer.parseInt(parts[0]);
-            int minute = Integer.parseInt(parts[1]);
-
-            String period = "AM";
-            if (hour >= 12) {
-                period = "PM";
-                if (hour > 12) {
-                    hour -= 12;
-                }
-            }
-            if (hour == 0) {
-                hour = 12;
-            }
-
-            return String.format("%d:%02d %s", hour, minute, period);
-        } catch (Exception e) {
-            return time24;
-        }
-    }
-
-    // Convert 12-hour format with AM/PM to 24-hour format
-    private String convertTo24HourFormat(String time12) {
-        try {
-            String timeStr = time12.trim().toUpperCase();
-            String period = timeStr.substring(timeStr.length() - 2); // Get AM or PM
-            String timePart = timeStr.substring(0, timeStr.length() - 2).trim();
-
-            String[] parts = timePart.split(":");
-            int hour = Integer.parseInt(parts[0]);
-            int minute = Integer.parseInt(parts[1]);
-
-            if (period.equals("PM") && hour != 12) {
-                hour += 12;
-            } else if (period.equals("AM") && hour == 12) {
-                hour = 0;
-            }
-
-            return String.format("%02d:%02d", hour, minute);
-        } catch (Exception e) {
-            return time12;
-        }
+        int minutes = TimeOfDay.parse24Hour(time24);
+        return minutes != TimeOfDay.INVALID ? TimeOfDay.format12Hour(minutes) : time24;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.util.LruCache;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.MonthGrid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Month grids for the calendar screen, kept in a bounded LRU cache keyed by
+// (adjustment version, year, month). A miss is computed on a thread of its
+// own and reported back, so the main thread only ever reads finished grids
+// and scrolling never waits behind receiver work. The adjustment version
+// moves on whenever a sighting correction replaces the calendar, so grids of
+// the old corrections are never served again and age out of the cache by
+// themselves. Prefetched months that have left the window around the
+// visible position by the time their turn comes are dropped, not computed.
+final class MonthGridCache {
+
+    // Twenty years of months; a grid is well under a kilobyte
+    static final int MAX_GRIDS = 240;
+    // Months waiting to be computed; when full, the oldest prefetch gives way
+    static final int MAX_QUEUED = 48;
+
+    private static final LruCache<Long, MonthGrid> grids = new LruCache<>(MAX_GRIDS);
+    // Keys being computed, each with the callbacks waiting for it, so a month
+    // asked for twice is computed once and reported to both
+    private static final Map<Long, List<Runnable>> pending = new HashMap<>();
+    private static HijriCalendar calendar;
+    private static int adjustmentVersion;
+
+    // Months of the latest prefetch window, as keys
+    private static long focusFirst;
+    private static long focusLast = -1;
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED), task -> {
+                Thread thread = new Thread(task, "MonthGrids");
+                thread.setDaemon(true);
+                return thread;
+            }, MonthGridCache::makeRoom);
+
+    private MonthGridCache() {
+    }
+
+    // Grid of a month if it is cached, otherwise null. A miss queues the
+    // month, and onReady runs on the grid thread once it is cached.
+    static MonthGrid get(HijriCalendar calendar, int year, int month, Runnable onReady) {
+        long key = key(versionOf(calendar), year, month);
+        MonthGrid grid = grids.get(key);
+        if (grid == null) {
+            compute(calendar, key, year, month, onReady);
+        }
+        return grid;
+    }
+
+    // Queue the months from `before` months ahead of the given one to `after`
+    // months past it that are not cached yet, nearest first. Queued prefetches
+    // outside this window are dropped.
+    static void prefetch(HijriCalendar calendar, int year, int month, int before, int after) {
+        int version = versionOf(calendar);
+        int index = year * 12 + month - 1;
+        synchronized (MonthGridCache.class) {
+            focusFirst = key(version, index - before);
+            focusLast = key(version, index + after);
+        }
+        for (int distance = 1; distance <= Math.max(before, after); distance++) {
+            if (distance <= after) {
+                prefetch(calendar, version, index + distance);
+            }
+            if (distance <= before) {
+                prefetch(calendar, version, index - distance);
+            }
+        }
+    }
+
+    private static void prefetch(HijriCalendar calendar, int version, int index) {
+        int year = index / 12;
+        int month = index % 12 + 1;
+        if (year < calendar.getMinYear() || year > calendar.getMaxYear()) {
+            return;
+        }
+        long key = key(version, index);
+        if (grids.get(key) == null) {
+            compute(calendar, key, year, month, null);
+        }
+    }
+
+    private static void compute(HijriCalendar calendar, long key, int year, int month, Runnable onReady) {
+        synchronized (MonthGridCache.class) {
+            List<Runnable> callbacks = pending.get(key);
+            if (callbacks != null) {
+                // Already queued: wait for that run
+                if (onReady != null) {
+                    callbacks.add(onReady);
+                }
+                return;
+            }
+            callbacks = new ArrayList<>(1);
+            if (onReady != null) {
+                callbacks.add(onReady);
+            }
+            pending.put(key, callbacks);
+        }
+        executor.execute(new GridTask(calendar, key, year, month));
+    }
+
+    // Queue full: drop the oldest queued month nobody is waiting for, or the
+    // oldest one if every month has a callback, to make room for the new one
+    private static void makeRoom(Runnable task, ThreadPoolExecutor pool) {
+        GridTask oldest = null;
+        for (Runnable queued : pool.getQueue()) {
+            GridTask candidate = (GridTask) queued;
+            if (oldest == null || !candidate.isAwaited()) {
+                oldest = candidate;
+                if (!candidate.isAwaited()) {
+                    break;
+                }
+            }
+        }
+        if (oldest != null && pool.getQueue().remove(oldest)) {
+            oldest.drop();
+        }
+        if (!pool.getQueue().offer(task)) {
+            ((GridTask) task).drop();
+        }
+    }
+
+    private static final class GridTask implements Runnable {
+        private final HijriCalendar calendar;
+        private final long key;
+        private final int year;
+        private final int month;
+
+        GridTask(HijriCalendar calendar, long key, int year, int month) {
+            this.calendar = calendar;
+            this.key = key;
+            this.year = year;
+            this.month = month;
+        }
+
+        // True if an item is waiting to be redrawn with this month
+        boolean isAwaited() {
+            synchronized (MonthGridCache.class) {
+                List<Runnable> callbacks = pending.get(key);
+                return callbacks != null && !callbacks.isEmpty();
+            }
+        }
+
+        void drop() {
+            synchronized (MonthGridCache.class) {
+                pending.remove(key);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (MonthGridCache.class) {
+                // A prefetch the list has scrolled away from
+                if (pending.get(key).isEmpty() && (key < focusFirst || key > focusLast)) {
+                    pending.remove(key);
+                    return;
+                }
+            }
+            if (grids.get(key) == null) {
+                grids.put(key, MonthGrid.compute(calendar, year, month));
+            }
+            List<Runnable> callbacks;
+            synchronized (MonthGridCache.class) {
+                callbacks = pending.remove(key);
+            }
+            for (Runnable onReady : callbacks) {
+                onReady.run();
+            }
+        }
+    }
+
+    // Adjustment version of a calendar: the same while the calendar object
+    // stays the same, since corrections always replace it
+    private static synchronized int versionOf(HijriCalendar current) {
+        if (current != calendar) {
+            calendar = current;
+            adjustmentVersion++;
+        }
+        return adjustmentVersion;
+    }
+
+    private static long key(int version, int year, int month) {
+        return key(version, year * 12 + month - 1);
+    }
+
+    // Keys of one version sort by month
+    private static long key(int version, int index) {
+        return ((long) version << 32) | index;
+    }
+}
@@ -0,0 +1,170 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import com.islamiccalendar.core.CrescentForecast;
+import com.islamiccalendar.core.CrescentVisibility;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.HijriMonths;
+
+import java.io.File;
+import java.io.IOException;
+
+// Every notification the app posts goes through here. The channel is
+// registered once per process, and each reminder is keyed by (Hijri year,
+// month, kind) so it has its own id and is posted at most once however many
+// entry points notice it.
+final class NotificationDispatcher {
+    private static final String TAG = "NotificationDispatcher";
+
+    private static final String CHANNEL_ID = "hijri_calendar_channel";
+    // Anniversaries due on one day share a notification, replaced the next day
+    private static final int ANNIVERSARY_ID = 2;
+    private static final int ANNIVERSARY_LINES = 5;
+    // Indexed by AnniversaryStore.KIND_*
+    private static final String[] ANNIVERSARY_KINDS = {"birthday", "death anniversary", "community date"};
+
+    // Kinds of reminder; each has a bit per month in the NotificationLog
+    static final int KIND_MONTH_END = 0;
+
+    private static boolean channelCreated;
+    private static NotificationLog log;
+    private static PendingIntent openApp;
+
+    private NotificationDispatcher() {
+    }
+
+    // Yallop class letters, indexed by CrescentVisibility.YALLOP_*
+    private static final String YALLOP_LETTERS = "ABCDEF";
+
+    // Ask the user to look for the new moon on the 29th of the given month.
+    // With a forecast for the saved location, say how likely a sighting is
+    // and which date that points to.
+    static void sendMonthEndReminder(Context context, int year, int month, CrescentForecast forecast) {
+        dispatch(context, year, month, KIND_MONTH_END, "Islamic Calendar - Month End",
+                monthEndText(month, forecast));
+    }
+
+    private static String monthEndText(int month, CrescentForecast forecast) {
+        int yallop = forecast != null ? forecast.getYallopClass(month) : CrescentVisibility.UNKNOWN;
+        if (yallop == CrescentVisibility.UNKNOWN) {
+            return "It's the 29th of the month. Please check for moon sighting and set the new date.";
+        }
+        int suggested = forecast.suggestedDate(month);
+        return "It's the 29th of " + HijriMonths.englishName(month) + ". Sighting "
+                + (forecast.isLikelyVisible(month) ? "likely" : "unlikely")
+                + " tonight (Yallop " + YALLOP_LETTERS.charAt(yallop) + "), suggesting "
+                + HijriCalendar.day(suggested) + " " + HijriMonths.englishName(HijriCalendar.month(suggested))
+                + ". Please check for moon sighting and set the new date.";
+    }
+
+    // Everyone in the anniversary list due today, as one notification. The
+    // store records the day notified, so these need no entry in the log.
+    static synchronized void sendAnniversaries(Context context, AnniversaryStore store, int[] due, int count) {
+        NotificationManager notificationManager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (notificationManager == null) {
+            return;
+        }
+        createNotificationChannel(context);
+
+        NotificationCompat.InboxStyle lines = new NotificationCompat.InboxStyle();
+        for (int i = 0; i < count && i < ANNIVERSARY_LINES; i++) {
+            lines.addLine(store.nameAt(due[i]) + " - " + ANNIVERSARY_KINDS[store.kindAt(due[i])]);
+        }
+        if (count > ANNIVERSARY_LINES) {
+            lines.setSummaryText("+" + (count - ANNIVERSARY_LINES) + " more");
+        }
+        String text = count == 1 ? store.nameAt(due[0]) : count + " anniversaries today";
+        notificationManager.notify(ANNIVERSARY_ID, build(context, "Islamic Calendar - Anniversaries", text)
+                .setStyle(lines)
+                .build());
+    }
+
+    // Post a reminder unless it was posted before
+    static synchronized void dispatch(Context context, int year, int month, int kind, String title, String text) {
+        if (log == null) {
+            log = NotificationLog.open(new File(context.getFilesDir(), NotificationLog.NAME));
+        }
+
+        NotificationManager notificationManager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (notificationManager == null) {
+            return;
+        }
+        int id = claim(log, year, month, kind);
+        if (id == 0) {
+            return;
+        }
+        createNotificationChannel(context);
+        notificationManager.notify(id, build(context, title, text).build());
+
+        try {
+            log.save();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save notification log", e);
+        }
+    }
+
+    // Record a reminder in the log and return its notification id, or 0 if
+    // it was posted before or its month is too old to post. Ids are distinct
+    // per (year, month, kind) and never ANNIVERSARY_ID.
+    static int claim(NotificationLog log, int year, int month, int kind) {
+        int monthIndex = NotificationLog.monthIndex(year, month);
+        if (!log.markSent(monthIndex, kind)) {
+            return 0;
+        }
+        return (monthIndex + 1) * NotificationLog.KINDS + kind + ANNIVERSARY_ID + 1;
+    }
+
+    private static NotificationCompat.Builder build(Context context, String title, String text) {
+        // Create intent to open MainActivity
+        if (openApp == null) {
+            Intent intent = new Intent(context, MainActivity.class);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            openApp = PendingIntent.getActivity(
+                    context,
+                    0,
+                    intent,
+                    PendingIntent.FLAG_IMMUTABLE
+            );
+        }
+
+        return new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_dialog_info)
+                .setContentTitle(title)
+                .setContentText(text)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setContentIntent(openApp)
+                .setAutoCancel(true);
+    }
+
+    // Registering is idempotent on the system side, but it is a binder call; once per process is enough
+    private static void createNotificationChannel(Context context) {
+        if (channelCreated) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            CharSequence name = "Hijri Calendar Notifications";
+            String description = "Notifications for month-end reminders";
+            int importance = NotificationManager.IMPORTANCE_HIGH;
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, name, importance);
+            channel.setDescription(description);
+
+            NotificationManager notificationManager =
+                    context.getSystemService(NotificationManager.class);
+            if (notificationManager != null) {
+                notificationManager.createNotificationChannel(channel);
+            }
+        }
+        channelCreated = true;
+    }
+}
@@ -0,0 +1,103 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Which notifications were already posted, as one bit per (Hijri month, kind)
+// over a sliding window of the last WINDOW months. A notification for a month
+// that has slid out of the window counts as sent, so stale reminders are never
+// posted late. Layout: int magic 'HNL1', int first month index, then one long
+// per kind.
+final class NotificationLog {
+
+    static final String NAME = "notification_log.bin";
+
+    // NotificationDispatcher.KIND_*
+    static final int KINDS = 1;
+    private static final int WINDOW = 64;
+    private static final int MAGIC = 0x484E4C31;
+    private static final int LENGTH = 8 + 8 * KINDS;
+
+    private final File file;
+    private int firstMonth;
+    private final long[] bits = new long[KINDS];
+
+    private NotificationLog(File file) {
+        this.file = file;
+    }
+
+    // Log kept in the given file; a missing or damaged file starts empty
+    static NotificationLog open(File file) {
+        NotificationLog log = new NotificationLog(file);
+        if (file.isFile()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until full or end of file
+                }
+                buffer.flip();
+                if (buffer.remaining() == LENGTH && buffer.getInt() == MAGIC) {
+                    log.firstMonth = buffer.getInt();
+                    for (int kind = 0; kind < KINDS; kind++) {
+                        log.bits[kind] = buffer.getLong();
+                    }
+                }
+            } catch (IOException ignored) {
+                // Start empty; at worst one reminder is posted again
+            }
+        }
+        return log;
+    }
+
+    // Months since 1 Muharram of year 0, the log's month index
+    static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    // Record a notification; returns false if it was sent before and should be dropped
+    boolean markSent(int monthIndex, int kind) {
+        if (monthIndex < firstMonth) {
+            return false;
+        }
+        if (monthIndex >= firstMonth + WINDOW) {
+            // Slide the window so monthIndex is its last month
+            int shift = monthIndex - (firstMonth + WINDOW - 1);
+            for (int k = 0; k < KINDS; k++) {
+                bits[k] = shift >= WINDOW ? 0 : bits[k] >>> shift;
+            }
+            firstMonth += shift;
+        }
+        long bit = 1L << (monthIndex - firstMonth);
+        if ((bits[kind] & bit) != 0) {
+            return false;
+        }
+        bits[kind] |= bit;
+        return true;
+    }
+
+    // Write the log to a temporary file and rename it over the old one
+    void save() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        buffer.putInt(MAGIC);
+        buffer.putInt(firstMonth);
+        for (int kind = 0; kind < KINDS; kind++) {
+            buffer.putLong(bits[kind]);
+        }
+        buffer.flip();
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,28 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.content.Context;
+
+// The one sunset handler behind the alarm, the periodic worker, boot and
+// clock changes, so they cannot drift apart again: apply the missed
+// sunsets, ask about the moon when the date is held on the 29th (with the
+// crescent forecast when a location is saved), and redraw the widget.
+final class SunsetRollover {
+
+    private SunsetRollover() {
+    }
+
+    static HijriDateManager.Increment run(Context context) {
+        HijriDateManager dateManager = new HijriDateManager(context);
+        HijriDateManager.Increment outcome = dateManager.catchUp();
+        if (outcome == HijriDateManager.Increment.HELD) {
+            // Posted once per month however many runs find the date held
+            HijriDateSnapshot held = dateManager.getSnapshot();
+            NotificationDispatcher.sendMonthEndReminder(context, held.getYear(), held.getMonth(),
+                    dateManager.getCrescentForecast(held.getYear()));
+        }
+        if (outcome != HijriDateManager.Increment.NOT_DUE) {
+            CalendarWidget.updateWidgetNow(context);
+        }
+        return outcome;
+    }
+}
@@ -0,0 +1,44 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+// The device's time zone and its rules, looked up once and reused until a
+// clock broadcast says the zone changed. DST is part of the rules, so a
+// DST shift needs no refresh; only moving to another zone does.
+final class SystemZone {
+
+    private static volatile SystemZone current;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+
+    private SystemZone(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+    }
+
+    static SystemZone get() {
+        SystemZone zone = current;
+        if (zone == null) {
+            zone = new SystemZone(ZoneId.systemDefault());
+            current = zone;
+        }
+        return zone;
+    }
+
+    // Look the device zone up again and return it
+    static SystemZone refresh() {
+        SystemZone zone = new SystemZone(ZoneId.systemDefault());
+        current = zone;
+        return zone;
+    }
+
+    ZoneId getZone() {
+        return zone;
+    }
+
+    ZoneRules getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,111 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+// The next LENGTH sunsets the date turns at, computed in one pass and kept
+// in a ring of primitives. Each entry has the sunset instant and the
+// Gregorian day it falls on; what the date does there is decided by
+// SunsetRollover when it comes. Alarms pop entries from the head instead of
+// recomputing the next sunset each time.
+final class TransitionSchedule {
+
+    static final int LENGTH = 45;
+
+    // Power of two, so ring positions wrap with a mask
+    private static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    // Sunset on a given date in minutes after midnight
+    interface SunsetSource {
+        int getSunsetMinutes(LocalDate date);
+    }
+
+    private final long[] instants = new long[CAPACITY];
+    private final long[] days = new long[CAPACITY];
+    private int head;
+    private int size;
+
+    // Replace the contents with the LENGTH sunsets after nowMillis
+    void fill(long nowMillis, ZoneId zone, SunsetSource sunsets) {
+        head = 0;
+        size = 0;
+        long today = Instant.ofEpochMilli(nowMillis).atZone(zone).toLocalDate().toEpochDay();
+        append(today - 1, LENGTH, nowMillis, zone, sunsets);
+    }
+
+    // Add up to count sunsets on the days after afterDay that fall after nowMillis
+    private void append(long afterDay, int count, long nowMillis, ZoneId zone, SunsetSource sunsets) {
+        long day = afterDay;
+        while (count > 0 && size < CAPACITY) {
+            day++;
+            LocalDate date = LocalDate.ofEpochDay(day);
+            int minutes = sunsets.getSunsetMinutes(date);
+            long instant = date.atTime(minutes / 60, minutes % 60).atZone(zone).toInstant().toEpochMilli();
+            if (instant <= nowMillis) {
+                continue;
+            }
+            int position = (head + size) & MASK;
+            instants[position] = instant;
+            days[position] = day;
+            size++;
+            count--;
+        }
+    }
+
+    // Move the transitions to a new time zone. Only entries whose UTC offset
+    // differs between the old and new rules can change, so only those are
+    // recomputed. Returns the largest shift of any entry in milliseconds.
+    long refreshZone(ZoneRules oldRules, ZoneId newZone, SunsetSource sunsets) {
+        ZoneRules newRules = newZone.getRules();
+        long drift = 0;
+        for (int i = 0; i < size; i++) {
+            int position = (head + i) & MASK;
+            Instant instant = Instant.ofEpochMilli(instants[position]);
+            if (oldRules.getOffset(instant).equals(newRules.getOffset(instant))) {
+                continue;
+            }
+            LocalDate date = LocalDate.ofEpochDay(days[position]);
+            int minutes = sunsets.getSunsetMinutes(date);
+            long moved = date.atTime(minutes / 60, minutes % 60).atZone(newZone).toInstant().toEpochMilli();
+            drift = Math.max(drift, Math.abs(moved - instants[position]));
+            instants[position] = moved;
+        }
+        return drift;
+    }
+
+    // Remove the entries at or before nowMillis; returns how many were removed
+    int dropPassed(long nowMillis) {
+        int dropped = 0;
+        while (size > 0 && instants[head] <= nowMillis) {
+            head = (head + 1) & MASK;
+            size--;
+            dropped++;
+        }
+        return dropped;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Instant of the next transition; only valid when not empty
+    long peekInstant() {
+        return instants[head];
+    }
+
+    // Gregorian epoch day of the next transition; only valid when not empty
+    long peekDay() {
+        return days[head];
+    }
+
+    long instantAt(int i) {
+        return instants[(head + i) & MASK];
+    }
+}
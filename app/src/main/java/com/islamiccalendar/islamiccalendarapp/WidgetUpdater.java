@@ -0,0 +1,117 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.widget.RemoteViews;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.HijriDateFormatter;
+import com.islamiccalendar.core.HijriMonths;
+
+import java.util.Arrays;
+
+// Pushes widget content off the main thread. Requests from the app are
+// debounced so a burst (save, alarm, clock change) becomes one push, every
+// widget id gets the same RemoteViews in one call, and nothing is pushed
+// when the content is what the widgets already show. The widget shows the
+// packed Hijri date and the event countdown, which also moves when a
+// correction shifts an event, so the two together are the content key.
+final class WidgetUpdater {
+
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private static boolean pending;
+
+    // What was pushed last, and where; guarded by the class lock
+    private static int pushedDate;
+    private static String pushedCountdown;
+    private static int[] pushedIds;
+    private static RemoteViews pushedViews;
+    private static PendingIntent openApp;
+
+    private WidgetUpdater() {
+    }
+
+    // Ask for a push shortly; requests arriving meanwhile share it
+    static void requestUpdate(Context context) {
+        Context appContext = context.getApplicationContext();
+        synchronized (WidgetUpdater.class) {
+            if (pending) {
+                return;
+            }
+            pending = true;
+        }
+        BackgroundWork.schedule(() -> {
+            synchronized (WidgetUpdater.class) {
+                pending = false;
+            }
+            pushIfChanged(appContext);
+        }, DEBOUNCE_MILLIS);
+    }
+
+    // Push now unless the widgets already show the current content
+    static void pushIfChanged(Context context) {
+        push(context, AppWidgetManager.getInstance(context), null, false);
+    }
+
+    // The system asked for these ids to be drawn, so they are pushed right away
+    static void updateNow(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+        push(context, appWidgetManager, appWidgetIds, true);
+    }
+
+    private static synchronized void push(Context context, AppWidgetManager appWidgetManager,
+                                          int[] appWidgetIds, boolean force) {
+        if (appWidgetManager == null) {
+            return;
+        }
+        if (appWidgetIds == null) {
+            appWidgetIds = appWidgetManager.getAppWidgetIds(new ComponentName(context, CalendarWidget.class));
+        }
+        if (appWidgetIds == null || appWidgetIds.length == 0) {
+            return;
+        }
+
+        HijriDateManager dateManager = new HijriDateManager(context);
+        int date = dateManager.getHijriDate();
+        String countdown = dateManager.getEventCountdown();
+        boolean same = date == pushedDate && countdown.equals(pushedCountdown);
+        if (!force && same && Arrays.equals(appWidgetIds, pushedIds)) {
+            return;
+        }
+
+        RemoteViews views = same && pushedViews != null
+                ? pushedViews : render(context, date, countdown);
+        appWidgetManager.updateAppWidget(appWidgetIds, views);
+        pushedDate = date;
+        pushedCountdown = countdown;
+        pushedIds = appWidgetIds.clone();
+        pushedViews = views;
+    }
+
+    private static RemoteViews render(Context context, int date, String countdown) {
+        int day = HijriCalendar.day(date);
+        int month = HijriCalendar.month(date);
+
+        RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_layout);
+        views.setTextViewText(R.id.widgetDayNumber, HijriDateFormatter.day(day, true));
+        views.setTextViewText(R.id.widgetArabicMonth, HijriMonths.arabicName(month));
+        views.setTextViewText(R.id.widgetMonthName, HijriDateFormatter.monthDay(month, day));
+        views.setTextViewText(R.id.widgetYear, HijriDateFormatter.yearWithEra(HijriCalendar.year(date)));
+        views.setTextViewText(R.id.widgetCountdown, countdown);
+
+        // Open MainActivity when widget is clicked; one PendingIntent serves every render
+        if (openApp == null) {
+            openApp = PendingIntent.getActivity(
+                    context,
+                    0,
+                    new Intent(context, MainActivity.class),
+                    PendingIntent.FLAG_IMMUTABLE
+            );
+        }
+        views.setOnClickPendingIntent(R.id.widgetLayout, openApp);
+        return views;
+    }
+}
@@ -0,0 +1,143 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.TabularHijriCalendar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AnniversaryStoreTest {
+
+    private final HijriCalendar calendar = TabularHijriCalendar.getInstance();
+
+    private static AnniversaryStore load(String csv) throws IOException {
+        AnniversaryStore.Builder builder = new AnniversaryStore.Builder(
+                AnniversaryStore.open(new File("does-not-exist.bin")));
+        builder.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        return builder.build();
+    }
+
+    @Test
+    public void readCsv_parsesRowsAndSortsByMonthAndDay() throws IOException {
+        AnniversaryStore.Builder builder = new AnniversaryStore.Builder(
+                AnniversaryStore.open(new File("does-not-exist.bin")));
+        int skipped = builder.readCsv(new ByteArrayInputStream((
+                "name,day,month,kind\r\n"
+                        + "Aisha,12,3,birthday\r\n"
+                        + "\"Yusuf \"\"Abu Bakr\"\" Ali\",1,1,death\n"
+                        + "\n"
+                        + "Masjid anniversary, 5 , 9\n"
+                        + "Broken,31,2\n"
+                        + "عمر,2,1,b").getBytes(StandardCharsets.UTF_8)));
+        AnniversaryStore store = builder.build();
+
+        assertEquals(3, skipped);
+        assertEquals(4, store.size());
+        assertEquals("Yusuf \"Abu Bakr\" Ali", store.nameAt(0));
+        assertEquals(AnniversaryStore.KIND_DEATH, store.kindAt(0));
+        assertEquals("عمر", store.nameAt(1));
+        assertEquals(AnniversaryStore.KIND_BIRTHDAY, store.kindAt(1));
+        assertEquals("Aisha", store.nameAt(2));
+        assertEquals(3, store.monthAt(2));
+        assertEquals(12, store.dayAt(2));
+        assertEquals("Masjid anniversary", store.nameAt(3));
+        assertEquals(AnniversaryStore.KIND_COMMUNITY, store.kindAt(3));
+    }
+
+    @Test
+    public void build_dropsEntriesAlreadyInTheList() throws IOException {
+        String csv = "Aisha,12,3,birthday\nAisha,12,3,death\nAishah,12,3,birthday\nYusuf,1,1\n";
+        AnniversaryStore.Builder builder = new AnniversaryStore.Builder(load(csv));
+        builder.readCsv(new ByteArrayInputStream((csv + "Aisha,12,3,birthday\nOmar,2,2\n")
+                .getBytes(StandardCharsets.UTF_8)));
+        AnniversaryStore store = builder.build();
+
+        assertEquals(5, store.size());
+        assertEquals("Yusuf", store.nameAt(0));
+        assertEquals("Omar", store.nameAt(1));
+        assertEquals("Aisha", store.nameAt(2));
+        assertEquals(AnniversaryStore.KIND_BIRTHDAY, store.kindAt(2));
+        assertEquals("Aisha", store.nameAt(3));
+        assertEquals(AnniversaryStore.KIND_DEATH, store.kindAt(3));
+        assertEquals("Aishah", store.nameAt(4));
+    }
+
+    @Test
+    public void dueWithin_wrapsPastTheEndOfTheYear() throws IOException {
+        AnniversaryStore store = load("A,25,12\nB,3,1\nC,10,1\nD,1,6\n");
+        int[] out = new int[store.size()];
+
+        long lateInYear = calendar.toEpochDay(1446, 12, 20);
+        int count = store.dueWithin(calendar, lateInYear, 15, out);
+        assertEquals(2, count);
+        assertEquals("A", store.nameAt(out[0]));
+        assertEquals("B", store.nameAt(out[1]));
+
+        assertEquals(1, store.dueWithin(calendar, calendar.toEpochDay(1447, 1, 3), 0, out));
+        assertEquals(0, store.dueWithin(calendar, calendar.toEpochDay(1447, 1, 4), 0, out));
+    }
+
+    @Test
+    public void thirtiethOfAShortMonth_isDueOnTheFirst() throws IOException {
+        // Month 2 of the tabular calendar has 29 days
+        assertEquals(29, calendar.lengthOfMonth(1447, 2));
+        AnniversaryStore store = load("Late,30,2\nFirst,1,3\n");
+        int[] out = new int[store.size()];
+
+        assertEquals(0, store.dueWithin(calendar, calendar.toEpochDay(1447, 2, 29), 0, out));
+        long first = calendar.toEpochDay(1447, 3, 1);
+        assertEquals(2, store.dueWithin(calendar, first, 0, out));
+        assertEquals("Late", store.nameAt(out[0]));
+        assertEquals(first, store.nextDue(calendar, calendar.toEpochDay(1447, 2, 10)));
+    }
+
+    @Test
+    public void nextDue_movesOnToTheNextYear() throws IOException {
+        AnniversaryStore store = load("A,10,1\nB,5,7\n");
+
+        assertEquals(calendar.toEpochDay(1447, 7, 5), store.nextDue(calendar, calendar.toEpochDay(1447, 1, 11)));
+        assertEquals(calendar.toEpochDay(1447, 7, 5), store.nextDue(calendar, calendar.toEpochDay(1447, 7, 5)));
+        assertEquals(calendar.toEpochDay(1448, 1, 10), store.nextDue(calendar, calendar.toEpochDay(1447, 7, 6)));
+        assertEquals(calendar.toEpochDay(1448, 1, 10), store.nextDue(calendar, calendar.toEpochDay(1447, 12, 30)));
+        assertEquals(AnniversaryStore.NONE, load("").nextDue(calendar, 0));
+    }
+
+    @Test
+    public void thousandsOfEntries_roundTripThroughTheFile() throws IOException {
+        Random random = new Random(1447);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            csv.append("Member ").append(i).append(',').append(1 + random.nextInt(30))
+                    .append(',').append(1 + random.nextInt(12)).append('\n');
+        }
+        AnniversaryStore store = load(csv.toString());
+        assertEquals(5000, store.size());
+        for (int i = 1; i < store.size(); i++) {
+            int previous = AnniversaryStore.key(store.monthAt(i - 1), store.dayAt(i - 1));
+            assertTrue(previous <= AnniversaryStore.key(store.monthAt(i), store.dayAt(i)));
+        }
+
+        File file = File.createTempFile("anniversaries", ".bin");
+        try {
+            AnniversaryStore saved = AnniversaryStore.decode(file, store.encode());
+            assertNotNull(saved);
+            saved.setLastNotifiedEpochDay(12345);
+            saved.save();
+
+            AnniversaryStore reopened = AnniversaryStore.open(file);
+            assertEquals(5000, reopened.size());
+            assertEquals(12345, reopened.getLastNotifiedEpochDay());
+            assertEquals(store.nameAt(4999), reopened.nameAt(4999));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BackgroundWorkTest {
+
+    @Test
+    public void work_runsOneAtATimeInDispatchOrder() throws InterruptedException {
+        List<Integer> order = new ArrayList<>();
+        int[] running = new int[1];
+        boolean[] overlapped = new boolean[1];
+        for (int i = 0; i < 50; i++) {
+            int task = i;
+            BackgroundWork.submit(() -> {
+                overlapped[0] |= ++running[0] > 1;
+                order.add(task);
+                running[0]--;
+            });
+        }
+
+        assertTrue(BackgroundWork.awaitIdle(5, TimeUnit.SECONDS));
+        assertFalse(overlapped[0]);
+        assertEquals(50, order.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+}
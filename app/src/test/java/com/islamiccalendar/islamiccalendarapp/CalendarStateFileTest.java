@@ -0,0 +1,118 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import com.islamiccalendar.core.AdjustedHijriCalendar;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.SightingAdjustments;
+import com.islamiccalendar.core.TabularHijriCalendar;
+import com.islamiccalendar.core.UmmAlQuraCalendar;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class CalendarStateFileTest {
+
+    private final HijriCalendar base = TabularHijriCalendar.getInstance();
+
+    private CalendarState sampleState() {
+        SightingAdjustments adjustments = new SightingAdjustments(AdjustedHijriCalendar.monthCount(base));
+        adjustments.add(1765, 1);
+        adjustments.add(1770, -1);
+        return new CalendarState(42, 20500, 20499, 18 * 60 + 45, 21.4225, 39.8262,
+                new AdjustedHijriCalendar(base, adjustments), false);
+    }
+
+    @Test
+    public void roundTrip_keepsEveryField() {
+        CalendarState state = sampleState();
+        CalendarState decoded = CalendarStateFile.decode(CalendarStateFile.encode(state), base);
+
+        assertNotNull(decoded);
+        assertEquals(42, decoded.getVersion());
+        assertEquals(20500, decoded.getEpochDay());
+        assertEquals(20499, decoded.getLastUpdateDay());
+        assertEquals(18 * 60 + 45, decoded.getManualSunsetMinutes());
+        assertEquals(21.4225, decoded.getLatitude(), 0);
+        assertEquals(39.8262, decoded.getLongitude(), 0);
+        assertFalse(decoded.isFirstLaunch());
+        assertEquals(state.getCalendar().getAdjustments().encode(),
+                decoded.getCalendar().getAdjustments().encode());
+    }
+
+    @Test
+    public void unsetDateAndNoLocation_roundTrip() {
+        CalendarState state = new CalendarState(0, CalendarState.UNSET, CalendarState.UNSET, 18 * 60,
+                Double.NaN, Double.NaN, new AdjustedHijriCalendar(base,
+                new SightingAdjustments(AdjustedHijriCalendar.monthCount(base))), true);
+        CalendarState decoded = CalendarStateFile.decode(CalendarStateFile.encode(state), base);
+
+        assertNotNull(decoded);
+        assertFalse(decoded.isDateSet());
+        assertFalse(decoded.hasLocation());
+        assertTrue(decoded.isFirstLaunch());
+    }
+
+    @Test
+    public void damagedData_isRejected() {
+        ByteBuffer encoded = CalendarStateFile.encode(sampleState());
+        for (int i = 0; i < encoded.limit(); i++) {
+            ByteBuffer copy = ByteBuffer.allocate(encoded.limit());
+            copy.put(encoded.duplicate()).flip();
+            copy.put(i, (byte) (copy.get(i) ^ 0x10));
+            assertNull(CalendarStateFile.decode(copy, base));
+        }
+
+        ByteBuffer truncated = encoded.duplicate();
+        truncated.limit(encoded.limit() - 1);
+        assertNull(CalendarStateFile.decode(truncated, base));
+    }
+
+    @Test
+    public void correctionsOfAnotherBase_areDropped() throws IOException {
+        HijriCalendar ummAlQura = new UmmAlQuraCalendar(
+                ByteBuffer.wrap(Files.readAllBytes(Paths.get("src/main/assets/umm_al_qura.bin"))));
+        SightingAdjustments adjustments = new SightingAdjustments(AdjustedHijriCalendar.monthCount(ummAlQura));
+        adjustments.add(1765, 1);
+        CalendarState state = new CalendarState(7, 20500, 20499, 18 * 60, Double.NaN, Double.NaN,
+                new AdjustedHijriCalendar(ummAlQura, adjustments), false);
+        ByteBuffer encoded = CalendarStateFile.encode(state);
+
+        CalendarState same = CalendarStateFile.decode(encoded.duplicate(), ummAlQura);
+        assertEquals(1, same.getCalendar().getAdjustments().count());
+
+        CalendarState other = CalendarStateFile.decode(encoded.duplicate(), base);
+        assertNotNull(other);
+        assertEquals(0, other.getCalendar().getAdjustments().count());
+        assertEquals(20500, other.getEpochDay());
+    }
+
+    @Test
+    public void read_tellsAMissingFileFromADamagedOne() throws IOException {
+        File file = new File(Files.createTempDirectory("state").toFile(), CalendarStateFile.NAME);
+        try {
+            assertNull(CalendarStateFile.read(file, base));
+
+            CalendarStateFile.write(file, sampleState());
+            assertEquals(42, CalendarStateFile.read(file, base).getVersion());
+
+            byte[] data = Files.readAllBytes(file.toPath());
+            data[10] ^= 1;
+            Files.write(file.toPath(), data);
+            try {
+                CalendarStateFile.read(file, base);
+                fail("Damaged file was read");
+            } catch (IOException expected) {
+                // Not mistaken for a first run
+            }
+        } finally {
+            file.delete();
+            file.getParentFile().delete();
+        }
+    }
+}
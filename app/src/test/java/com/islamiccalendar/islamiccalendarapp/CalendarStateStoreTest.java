@@ -0,0 +1,94 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.TabularHijriCalendar;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CalendarStateStoreTest {
+
+    private static final int COMMITS_PER_THREAD = 2000;
+
+    private final HijriCalendar base = TabularHijriCalendar.getInstance();
+
+    private static CalendarState nextDay(CalendarState current) {
+        return current.withEpochDay(current.getEpochDay() + 1, current.getEpochDay() + 1);
+    }
+
+    @Test
+    public void racingCommits_areAllApplied() throws Exception {
+        File dir = Files.createTempDirectory("state").toFile();
+        File file = new File(dir, "calendar_state.bin");
+        try {
+            CalendarState start = CalendarStateStore.initial(base)
+                    .withEpochDay(20000, CalendarState.UNSET);
+            CalendarStateStore store = new CalendarStateStore(file, start);
+
+            CountDownLatch go = new CountDownLatch(1);
+            Thread[] writers = new Thread[2];
+            for (int t = 0; t < writers.length; t++) {
+                writers[t] = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < COMMITS_PER_THREAD; i++) {
+                        assertNotNull(store.commit(CalendarStateStoreTest::nextDay));
+                    }
+                });
+                writers[t].start();
+            }
+            go.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            CalendarState last = store.get();
+            assertEquals(start.getVersion() + 2 * COMMITS_PER_THREAD, last.getVersion());
+            assertEquals(20000 + 2 * COMMITS_PER_THREAD, last.getEpochDay());
+
+            // The writes trail the commits on the background thread
+            assertTrue(BackgroundWork.awaitIdle(5, TimeUnit.SECONDS));
+            CalendarState saved = CalendarStateFile.read(file, base);
+            assertNotNull(saved);
+            assertEquals(last.getVersion(), saved.getVersion());
+            assertEquals(last.getEpochDay(), saved.getEpochDay());
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    public void unchangedState_isNotCommitted() throws IOException {
+        File dir = Files.createTempDirectory("state").toFile();
+        try {
+            CalendarState start = CalendarStateStore.initial(base);
+            CalendarStateStore store = new CalendarStateStore(new File(dir, "calendar_state.bin"), start);
+
+            assertNull(store.commit(current -> current));
+            assertNull(store.commit(current -> null));
+            assertSame(start, store.get());
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    private static void deleteAll(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+}
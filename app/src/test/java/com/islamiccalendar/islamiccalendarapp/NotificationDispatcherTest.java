@@ -0,0 +1,34 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class NotificationDispatcherTest {
+
+    @Test
+    public void claim_postsEachMonthEndOnceWithItsOwnId() {
+        NotificationLog log = NotificationLog.open(new File("does-not-exist.bin"));
+
+        int ramadan = NotificationDispatcher.claim(log, 1447, 9, NotificationDispatcher.KIND_MONTH_END);
+        int shawwal = NotificationDispatcher.claim(log, 1447, 10, NotificationDispatcher.KIND_MONTH_END);
+        int muharram = NotificationDispatcher.claim(log, 1448, 1, NotificationDispatcher.KIND_MONTH_END);
+
+        assertTrue(ramadan > 2);
+        assertTrue(shawwal > 2);
+        assertNotEquals(ramadan, shawwal);
+        assertNotEquals(shawwal, muharram);
+        assertEquals(0, NotificationDispatcher.claim(log, 1447, 9, NotificationDispatcher.KIND_MONTH_END));
+        assertEquals(0, NotificationDispatcher.claim(log, 1448, 1, NotificationDispatcher.KIND_MONTH_END));
+    }
+
+    @Test
+    public void claim_dropsRemindersOfMonthsOutOfTheWindow() {
+        NotificationLog log = NotificationLog.open(new File("does-not-exist.bin"));
+
+        assertNotEquals(0, NotificationDispatcher.claim(log, 1450, 1, NotificationDispatcher.KIND_MONTH_END));
+        assertEquals(0, NotificationDispatcher.claim(log, 1440, 1, NotificationDispatcher.KIND_MONTH_END));
+    }
+}
@@ -0,0 +1,45 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class NotificationLogTest {
+
+    @Test
+    public void eachMonthAndKind_isSentOnce() throws IOException {
+        File file = File.createTempFile("notification_log", ".bin");
+        Files.delete(file.toPath());
+        try {
+            NotificationLog log = NotificationLog.open(file);
+            int ramadan = NotificationLog.monthIndex(1447, 9);
+
+            assertTrue(log.markSent(ramadan, NotificationDispatcher.KIND_MONTH_END));
+            assertFalse(log.markSent(ramadan, NotificationDispatcher.KIND_MONTH_END));
+            assertTrue(log.markSent(ramadan - 1, NotificationDispatcher.KIND_MONTH_END));
+            log.save();
+
+            NotificationLog reopened = NotificationLog.open(file);
+            assertFalse(reopened.markSent(ramadan, NotificationDispatcher.KIND_MONTH_END));
+            assertTrue(reopened.markSent(ramadan + 1, NotificationDispatcher.KIND_MONTH_END));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void monthsThatSlidOutOfTheWindow_countAsSent() {
+        NotificationLog log = NotificationLog.open(new File("does-not-exist.bin"));
+        int start = NotificationLog.monthIndex(1447, 1);
+
+        assertTrue(log.markSent(start, 0));
+        assertTrue(log.markSent(start + 100, 0));
+        assertFalse(log.markSent(start, 0));
+        assertFalse(log.markSent(start + 100, 0));
+        assertTrue(log.markSent(start + 99, 0));
+    }
+}
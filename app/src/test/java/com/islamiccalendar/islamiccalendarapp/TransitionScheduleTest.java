@@ -0,0 +1,70 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class TransitionScheduleTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    @Test
+    public void fill_listsTheNextSunsetsInOrder() {
+        TransitionSchedule schedule = new TransitionSchedule();
+        long today = LocalDate.of(2025, 3, 10).toEpochDay();
+        long now = today * DAY_MILLIS + 12 * 3_600_000L;
+
+        schedule.fill(now, UTC, date -> 18 * 60);
+
+        assertEquals(TransitionSchedule.LENGTH, schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            assertEquals((today + i) * DAY_MILLIS + 18 * 3_600_000L, schedule.instantAt(i));
+        }
+    }
+
+    @Test
+    public void fill_skipsTodaysSunsetOnceItHasPassed() {
+        TransitionSchedule schedule = new TransitionSchedule();
+        long today = LocalDate.of(2025, 3, 10).toEpochDay();
+        long now = today * DAY_MILLIS + 19 * 3_600_000L;
+
+        schedule.fill(now, UTC, date -> 18 * 60);
+
+        assertEquals((today + 1) * DAY_MILLIS + 18 * 3_600_000L, schedule.peekInstant());
+    }
+
+    @Test
+    public void dropPassed_popsOnlyTransitionsThatHappened() {
+        TransitionSchedule schedule = new TransitionSchedule();
+        long today = LocalDate.of(2025, 3, 10).toEpochDay();
+        schedule.fill(today * DAY_MILLIS, UTC, date -> 18 * 60);
+        long second = schedule.instantAt(1);
+
+        assertEquals(0, schedule.dropPassed(schedule.peekInstant() - 1));
+        assertEquals(2, schedule.dropPassed(second));
+        assertEquals(TransitionSchedule.LENGTH - 2, schedule.size());
+        assertEquals(second + DAY_MILLIS, schedule.peekInstant());
+    }
+
+    @Test
+    public void refreshZone_movesOnlyEntriesWhoseOffsetChanged() {
+        TransitionSchedule schedule = new TransitionSchedule();
+        long today = LocalDate.of(2025, 3, 10).toEpochDay();
+        schedule.fill(today * DAY_MILLIS, UTC, date -> 18 * 60);
+        long first = schedule.peekInstant();
+
+        // Same offset all year: nothing moves
+        assertEquals(0, schedule.refreshZone(UTC.getRules(), ZoneId.of("Africa/Abidjan"), date -> 18 * 60));
+        assertEquals(first, schedule.peekInstant());
+
+        // Three hours east: a wall-clock sunset comes three hours earlier
+        long drift = schedule.refreshZone(UTC.getRules(), ZoneOffset.ofHours(3), date -> 18 * 60);
+        assertEquals(3 * 3_600_000L, drift);
+        assertEquals(first - 3 * 3_600_000L, schedule.peekInstant());
+    }
+}
@@ -0,0 +1,52 @@
+package com.islamiccalendar.islamiccalendarapp;
+
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.UmmAlQuraCalendar;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.chrono.HijrahDate;
+import java.time.temporal.ChronoField;
+
+import static org.junit.Assert.*;
+
+public class UmmAlQuraCalendarTest {
+
+    private HijriCalendar calendar;
+
+    @Before
+    public void loadDataset() throws IOException {
+        byte[] data = Files.readAllBytes(Paths.get("src/main/assets/umm_al_qura.bin"));
+        calendar = new UmmAlQuraCalendar(ByteBuffer.wrap(data));
+    }
+
+    @Test
+    public void everySupportedDay_matchesJavaTime() {
+        assertEquals(1300, calendar.getMinYear());
+        assertEquals(1600, calendar.getMaxYear());
+
+        long first = calendar.toEpochDay(1300, 1, 1);
+        long last = calendar.toEpochDay(1600, 12, 1) + calendar.lengthOfMonth(1600, 12) - 1;
+        for (long epochDay = first; epochDay <= last; epochDay++) {
+            HijrahDate expected = HijrahDate.from(LocalDate.ofEpochDay(epochDay));
+            int date = calendar.toHijri(epochDay);
+
+            assertEquals(expected.get(ChronoField.YEAR), HijriCalendar.year(date));
+            assertEquals(expected.get(ChronoField.MONTH_OF_YEAR), HijriCalendar.month(date));
+            assertEquals(expected.get(ChronoField.DAY_OF_MONTH), HijriCalendar.day(date));
+            assertEquals(epochDay, calendar.toEpochDay(
+                    HijriCalendar.year(date), HijriCalendar.month(date), HijriCalendar.day(date)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongMagic_isRejected() {
+        new UmmAlQuraCalendar(ByteBuffer.allocate(64));
+    }
+}
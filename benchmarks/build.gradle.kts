@@ -0,0 +1,28 @@
+// JMH benchmarks for the calendar-core hot paths.
+// Run with: ./gradlew :benchmarks:jmh  (results in build/results/jmh)
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmh(project(":calendar-core"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Reports allocation per operation (gc.alloc.rate.norm) next to throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgsAppend.add(
+        "-DummAlQura.path=" + rootProject.file("app/src/main/assets/umm_al_qura.bin").absolutePath
+    )
+}
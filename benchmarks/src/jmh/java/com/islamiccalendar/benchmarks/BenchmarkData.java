@@ -0,0 +1,23 @@
+package com.islamiccalendar.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Shared inputs for the benchmarks
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    // Map the app's Umm al-Qura asset the same way the app does; the path is
+    // passed in by the build
+    static ByteBuffer mapUmmAlQura() throws IOException {
+        String path = System.getProperty("ummAlQura.path", "../app/src/main/assets/umm_al_qura.bin");
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
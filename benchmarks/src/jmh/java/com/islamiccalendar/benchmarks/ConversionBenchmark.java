@@ -0,0 +1,91 @@
+package com.islamiccalendar.benchmarks;
+
+import com.islamiccalendar.core.AdjustedHijriCalendar;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.SightingAdjustments;
+import com.islamiccalendar.core.TabularHijriCalendar;
+import com.islamiccalendar.core.UmmAlQuraCalendar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.chrono.HijrahChronology;
+import java.time.chrono.HijrahDate;
+import java.time.temporal.ChronoField;
+import java.util.Random;
+
+// Gregorian -> Hijri conversion for each engine, with java.time's
+// HijrahChronology (also Umm al-Qura) as the differential baseline
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class ConversionBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private final long[] epochDays = new long[SAMPLES];
+    private int next;
+
+    private HijriCalendar tabular;
+    private HijriCalendar ummAlQura;
+    private HijriCalendar adjusted;
+
+    @Setup
+    public void setUp() throws IOException {
+        tabular = TabularHijriCalendar.getInstance();
+        ummAlQura = new UmmAlQuraCalendar(BenchmarkData.mapUmmAlQura());
+
+        // A realistic overlay: a correction in roughly one month out of ten
+        Random random = new Random(42);
+        SightingAdjustments adjustments = new SightingAdjustments(AdjustedHijriCalendar.monthCount(ummAlQura));
+        for (int month = 0; month < adjustments.size(); month += 10) {
+            adjustments.add(month, random.nextBoolean() ? 1 : -1);
+        }
+        adjusted = new AdjustedHijriCalendar(ummAlQura, adjustments);
+
+        // Dates inside the range every engine, HijrahChronology included, supports
+        long first = LocalDate.of(1940, 1, 1).toEpochDay();
+        long last = LocalDate.of(2070, 12, 31).toEpochDay();
+        for (int i = 0; i < SAMPLES; i++) {
+            epochDays[i] = first + (long) (random.nextDouble() * (last - first));
+        }
+    }
+
+    private long nextEpochDay() {
+        next = (next + 1) & (SAMPLES - 1);
+        return epochDays[next];
+    }
+
+    @Benchmark
+    public int tabular() {
+        return tabular.toHijri(nextEpochDay());
+    }
+
+    @Benchmark
+    public int ummAlQura() {
+        return ummAlQura.toHijri(nextEpochDay());
+    }
+
+    @Benchmark
+    public int ummAlQuraWithCorrections() {
+        return adjusted.toHijri(nextEpochDay());
+    }
+
+    @Benchmark
+    public long ummAlQuraRoundTrip() {
+        int date = ummAlQura.toHijri(nextEpochDay());
+        return ummAlQura.toEpochDay(HijriCalendar.year(date), HijriCalendar.month(date), HijriCalendar.day(date));
+    }
+
+    @Benchmark
+    public int hijrahChronologyBaseline() {
+        HijrahDate date = HijrahChronology.INSTANCE.dateEpochDay(nextEpochDay());
+        return HijriCalendar.pack(date.get(ChronoField.YEAR), date.get(ChronoField.MONTH_OF_YEAR),
+                date.get(ChronoField.DAY_OF_MONTH));
+    }
+}
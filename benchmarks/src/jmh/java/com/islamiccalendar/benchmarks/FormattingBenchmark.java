@@ -0,0 +1,65 @@
+package com.islamiccalendar.benchmarks;
+
+import com.islamiccalendar.core.ArabicNumerals;
+import com.islamiccalendar.core.HijriCalendar;
+import com.islamiccalendar.core.HijriDate;
+import com.islamiccalendar.core.HijriDateFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// Date text rendered on every widget refresh and activity update
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class FormattingBenchmark {
+
+    private final char[] sink = new char[HijriDateFormatter.MAX_FULL_DATE_LENGTH];
+    private int day;
+    // A field, not a constant, so the JIT cannot fold the formatting away
+    private int year = 1447;
+
+    private int nextDay() {
+        day = day % 30 + 1;
+        return day;
+    }
+
+    @Benchmark
+    public String arabicDay() {
+        return ArabicNumerals.format(nextDay());
+    }
+
+    @Benchmark
+    public String arabicYear() {
+        return ArabicNumerals.format(year);
+    }
+
+    @Benchmark
+    public String fullDateString() {
+        int day = nextDay();
+        return HijriDate.format(1447, day % 12 + 1, day);
+    }
+
+    @Benchmark
+    public String cachedArabicDay() {
+        return HijriDateFormatter.day(nextDay(), true);
+    }
+
+    @Benchmark
+    public String cachedYearWithEra() {
+        return HijriDateFormatter.yearWithEra(year);
+    }
+
+    @Benchmark
+    public int fullDateIntoSink() {
+        int day = nextDay();
+        return HijriDateFormatter.writeFullDate(HijriCalendar.pack(1447, day % 12 + 1, day), sink);
+    }
+
+    @Benchmark
+    public String fullDateSameDay() {
+        return HijriDateFormatter.fullDate(HijriCalendar.pack(1447, 9, 15));
+    }
+}
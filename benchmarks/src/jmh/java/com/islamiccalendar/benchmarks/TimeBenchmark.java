@@ -0,0 +1,103 @@
+package com.islamiccalendar.benchmarks;
+
+import com.islamiccalendar.core.SunsetCalculator;
+import com.islamiccalendar.core.TimeOfDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+
+// Scheduling math: sunset time parsing, the activity's 12/24-hour
+// conversions and sunset lookup. The legacy* benchmarks keep the original
+// split/String.format code from AlarmScheduler and MainActivity for comparison.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class TimeBenchmark {
+
+    // Fields, not constants, so the JIT cannot fold the parsing away
+    private String sunsetTime = "18:47";
+    private String sunsetTime12 = "6:47 PM";
+
+    private SunsetCalculator calculator;
+    private ZoneRules zoneRules;
+    private LocalDate date;
+    private long epochDay;
+
+    @Setup
+    public void setUp() {
+        ZoneId zone = ZoneId.of("Africa/Nairobi");
+        calculator = new SunsetCalculator(-1.2921, 36.8219, zone);
+        zoneRules = zone.getRules();
+        date = LocalDate.of(2026, 3, 21);
+        epochDay = date.toEpochDay();
+    }
+
+    @Benchmark
+    public int parseSunset() {
+        return TimeOfDay.parse24Hour(sunsetTime);
+    }
+
+    @Benchmark
+    public int legacyParseSunset() {
+        String[] timeParts = sunsetTime.split(":");
+        return Integer.parseInt(timeParts[0]) * 60 + Integer.parseInt(timeParts[1]);
+    }
+
+    @Benchmark
+    public String to12Hour() {
+        return TimeOfDay.format12Hour(TimeOfDay.parse24Hour(sunsetTime));
+    }
+
+    @Benchmark
+    public String legacyTo12Hour() {
+        String[] parts = sunsetTime.split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+        String period = hour >= 12 ? "PM" : "AM";
+        if (hour > 12) {
+            hour -= 12;
+        }
+        if (hour == 0) {
+            hour = 12;
+        }
+        return String.format("%d:%02d %s", hour, minute, period);
+    }
+
+    @Benchmark
+    public String to24Hour() {
+        return TimeOfDay.format24Hour(TimeOfDay.parse12Hour(sunsetTime12));
+    }
+
+    @Benchmark
+    public String legacyTo24Hour() {
+        String timeStr = sunsetTime12.trim().toUpperCase(Locale.US);
+        String period = timeStr.substring(timeStr.length() - 2);
+        String[] parts = timeStr.substring(0, timeStr.length() - 2).trim().split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+        if (period.equals("PM") && hour != 12) {
+            hour += 12;
+        } else if (period.equals("AM") && hour == 12) {
+            hour = 0;
+        }
+        return String.format("%02d:%02d", hour, minute);
+    }
+
+    @Benchmark
+    public int sunsetLookup() {
+        return calculator.getSunsetMinutes(date);
+    }
+
+    @Benchmark
+    public int sunsetComputed() {
+        return SunsetCalculator.computeSunset(epochDay, -1.2921, 36.8219, zoneRules);
+    }
+}
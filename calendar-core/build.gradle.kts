@@ -0,0 +1,14 @@
+// Plain Java calendar logic shared by the app; builds and tests on the JVM
+// without the Android toolchain.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,140 @@
+package com.islamiccalendar.core;
+
+// A computed calendar with sighting corrections laid over it.
+// Month starts are the base calendar's plus the accumulated shift from
+// SightingAdjustments, so any date converts with every correction applied in
+// O(log n), and corrections only move months from the corrected one onwards.
+public final class AdjustedHijriCalendar extends HijriCalendar {
+
+    private final HijriCalendar base;
+    private final SightingAdjustments adjustments;
+
+    public AdjustedHijriCalendar(HijriCalendar base, SightingAdjustments adjustments) {
+        if (adjustments.size() != monthCount(base)) {
+            throw new IllegalArgumentException("Adjustments do not cover the base calendar");
+        }
+        this.base = base;
+        this.adjustments = adjustments;
+    }
+
+    // Number of months a calendar supports, i.e. the size adjustments need
+    public static int monthCount(HijriCalendar calendar) {
+        return (calendar.getMaxYear() - calendar.getMinYear() + 1) * 12;
+    }
+
+    @Override
+    public int toHijri(long epochDay) {
+        int last = adjustments.size() - 1;
+        if (epochDay < monthStart(0) || epochDay >= monthStart(last) + lengthOfMonth(last)) {
+            throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
+        }
+
+        // Start from the base calendar's month and walk to the shifted one
+        long baseDay = Math.max(base.toEpochDay(base.getMinYear(), 1, 1),
+                Math.min(epochDay, base.toEpochDay(base.getMaxYear(), 12, 1)));
+        int baseDate = base.toHijri(baseDay);
+        int index = indexOf(HijriCalendar.year(baseDate), HijriCalendar.month(baseDate));
+        while (index > 0 && monthStart(index) > epochDay) {
+            index--;
+        }
+        while (index < last && monthStart(index + 1) <= epochDay) {
+            index++;
+        }
+
+        int day = (int) (epochDay - monthStart(index)) + 1;
+        return pack(base.getMinYear() + index / 12, index % 12 + 1, day);
+    }
+
+    @Override
+    public long toEpochDay(int year, int month, int day) {
+        return monthStart(indexOf(year, month)) + day - 1;
+    }
+
+    @Override
+    public int lengthOfMonth(int year, int month) {
+        return lengthOfMonth(indexOf(year, month));
+    }
+
+    @Override
+    public int getMinYear() {
+        return base.getMinYear();
+    }
+
+    @Override
+    public int getMaxYear() {
+        return base.getMaxYear();
+    }
+
+    public HijriCalendar getBase() {
+        return base;
+    }
+
+    public SightingAdjustments getAdjustments() {
+        return adjustments;
+    }
+
+    // Record that the given epoch day is (year, month, day), shifting the
+    // month start and, when the day runs past the month, the next month start.
+    // A sighting can only move a month start by a day either way and every
+    // month stays 29 or 30 days long; anything else is rejected unchanged.
+    public void correct(long epochDay, int year, int month, int day) {
+        int index = indexOf(year, month);
+        if (day < 1 || day > 30) {
+            throw new IllegalArgumentException("Day out of range: " + day);
+        }
+        int startShift = (int) (epochDay - day + 1 - monthStart(index));
+        checkShift(startShift);
+        // Moving this month's start changes only the previous month's length
+        if (index > 0) {
+            checkLength(lengthOfMonth(index - 1) + startShift);
+        }
+
+        // The next month start moves with this one before it is checked
+        int nextShift = 0;
+        if (index + 1 < adjustments.size() && monthStart(index + 1) + startShift <= epochDay) {
+            nextShift = (int) (epochDay + 1 - monthStart(index + 1) - startShift);
+            checkShift(nextShift);
+        }
+        checkLength(lengthOfMonth(index) + nextShift);
+
+        adjustments.add(index, startShift);
+        if (nextShift != 0) {
+            adjustments.add(index + 1, nextShift);
+        }
+    }
+
+    private static void checkShift(int shift) {
+        if (shift < -1 || shift > 1) {
+            throw new IllegalArgumentException("Correction moves a month start by " + shift + " days");
+        }
+    }
+
+    private static void checkLength(int length) {
+        if (length < 29 || length > 30) {
+            throw new IllegalArgumentException("Correction leaves a month " + length + " days long");
+        }
+    }
+
+    // Zero-based month index of a date, counted from Muharram of the first year
+    public int indexOf(int year, int month) {
+        if (year < getMinYear() || year > getMaxYear() || month < 1 || month > 12) {
+            throw new IllegalArgumentException("Hijri date out of supported range: " + month + "/" + year);
+        }
+        return (year - getMinYear()) * 12 + month - 1;
+    }
+
+    private long monthStart(int index) {
+        return base.toEpochDay(base.getMinYear() + index / 12, index % 12 + 1, 1)
+                + adjustments.shiftAt(index);
+    }
+
+    private int lengthOfMonth(int index) {
+        int year = base.getMinYear() + index / 12;
+        int month = index % 12 + 1;
+        int length = base.lengthOfMonth(year, month);
+        if (index + 1 < adjustments.size()) {
+            length += adjustments.shiftAt(index + 1) - adjustments.shiftAt(index);
+        }
+        return length;
+    }
+}
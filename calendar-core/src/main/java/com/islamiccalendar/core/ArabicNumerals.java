@@ -0,0 +1,34 @@
+package com.islamiccalendar.core;
+
+// Arabic-Indic digit conversion
+public final class ArabicNumerals {
+
+    private static final char[] DIGITS = {'٠', '١', '٢', '٣', '٤', '٥', '٦', '٧', '٨', '٩'};
+
+    private ArabicNumerals() {
+    }
+
+    // Arabic-Indic digit for a value 0-9
+    public static char digit(int value) {
+        return DIGITS[value];
+    }
+
+    // Format a number with Arabic-Indic digits
+    public static String format(int number) {
+        return convert(String.valueOf(number));
+    }
+
+    // Replace Western digits with Arabic-Indic ones, leaving other characters as they are
+    public static String convert(CharSequence text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                result.append(DIGITS[c - '0']);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
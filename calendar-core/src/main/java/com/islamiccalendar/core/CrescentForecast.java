@@ -0,0 +1,90 @@
+package com.islamiccalendar.core;
+
+// Crescent visibility on the evening of every 29th of one Hijri year, worked
+// out in one batch for one place. Results sit in primitive arrays indexed by
+// month - 1, so the month-end reminder looks its evening up without running
+// the ephemeris again.
+public final class CrescentForecast {
+
+    private final int year;
+    private final double latitude;
+    private final double longitude;
+    private final long[] evenings = new long[12];
+    private final byte[] yallop = new byte[12];
+    private final byte[] odeh = new byte[12];
+    private final float[] q = new float[12];
+    private final float[] moonAgeHours = new float[12];
+    private final short[] lagMinutes = new short[12];
+
+    private CrescentForecast(int year, double latitude, double longitude) {
+        this.year = year;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Forecast the twelve month-ends of a year as the calendar places them
+    public static CrescentForecast forYear(HijriCalendar calendar, int year, double latitude, double longitude) {
+        CrescentForecast forecast = new CrescentForecast(year, latitude, longitude);
+        for (int month = 1; month <= 12; month++) {
+            int i = month - 1;
+            long evening = calendar.toEpochDay(year, month, 29);
+            CrescentVisibility visibility = CrescentVisibility.evaluate(evening, latitude, longitude);
+            forecast.evenings[i] = evening;
+            forecast.yallop[i] = (byte) visibility.getYallopClass();
+            forecast.odeh[i] = (byte) visibility.getOdehZone();
+            forecast.q[i] = (float) visibility.getYallopQ();
+            forecast.moonAgeHours[i] = (float) visibility.getMoonAgeHours();
+            forecast.lagMinutes[i] = (short) Math.round(visibility.getLagMinutes());
+        }
+        return forecast;
+    }
+
+    // True if this forecast was made for the given year and place
+    public boolean matches(int year, double latitude, double longitude) {
+        return this.year == year && this.latitude == latitude && this.longitude == longitude;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    // Epoch day of the month's 29th
+    public long getEvening(int month) {
+        return evenings[month - 1];
+    }
+
+    public int getYallopClass(int month) {
+        return yallop[month - 1];
+    }
+
+    public int getOdehZone(int month) {
+        return odeh[month - 1];
+    }
+
+    public float getYallopQ(int month) {
+        return q[month - 1];
+    }
+
+    public float getMoonAgeHours(int month) {
+        return moonAgeHours[month - 1];
+    }
+
+    public int getLagMinutes(int month) {
+        return lagMinutes[month - 1];
+    }
+
+    // Seen by eye under a clear sky: Yallop A or B
+    public boolean isLikelyVisible(int month) {
+        int yallopClass = yallop[month - 1];
+        return yallopClass == CrescentVisibility.YALLOP_A || yallopClass == CrescentVisibility.YALLOP_B;
+    }
+
+    // The date after sunset on the 29th: the 1st of the next month if the
+    // crescent is likely to be seen, otherwise the 30th
+    public int suggestedDate(int month) {
+        if (isLikelyVisible(month)) {
+            return month == 12 ? HijriCalendar.pack(year + 1, 1, 1) : HijriCalendar.pack(year, month + 1, 1);
+        }
+        return HijriCalendar.pack(year, month, 30);
+    }
+}
@@ -0,0 +1,219 @@
+package com.islamiccalendar.core;
+
+// Whether the new crescent can be seen after sunset on one evening from one
+// place, by the Yallop (1997) and Odeh (2006) criteria. Both compare the
+// moon's height above the sun at the best time to look (sunset plus 4/9 of
+// the lag) against the width of the lit crescent: Yallop with the airless
+// geocentric ARCV, Odeh with the topocentric one.
+public final class CrescentVisibility {
+
+    // Yallop classes, from easily visible to below the Danjon limit
+    public static final int YALLOP_A = 0;
+    public static final int YALLOP_B = 1;
+    public static final int YALLOP_C = 2;
+    public static final int YALLOP_D = 3;
+    public static final int YALLOP_E = 4;
+    public static final int YALLOP_F = 5;
+
+    // Odeh zones
+    public static final int ODEH_NAKED_EYE = 0;
+    public static final int ODEH_OPTICAL_AID_MAYBE_NAKED_EYE = 1;
+    public static final int ODEH_OPTICAL_AID_ONLY = 2;
+    public static final int ODEH_NOT_VISIBLE = 3;
+
+    // No sunset that day (polar day or night): nothing to decide
+    public static final int UNKNOWN = -1;
+
+    // Moonset is searched for this long after sunset, in minutes
+    private static final int MAX_LAG = 360;
+    private static final int SEARCH_STEP = 10;
+
+    private final long epochDay;
+    private final double sunsetJd;
+    private final double moonAgeHours;
+    private final double lagMinutes;
+    private final double arcl;
+    private final double arcv;
+    private final double width;
+    private final double q;
+    private final double v;
+    private final int yallop;
+    private final int odeh;
+
+    private CrescentVisibility(long epochDay, double sunsetJd, double moonAgeHours, double lagMinutes,
+                               double arcl, double arcv, double width, double q, double v) {
+        this.epochDay = epochDay;
+        this.sunsetJd = sunsetJd;
+        this.moonAgeHours = moonAgeHours;
+        this.lagMinutes = lagMinutes;
+        this.arcl = arcl;
+        this.arcv = arcv;
+        this.width = width;
+        this.q = q;
+        this.v = v;
+        this.yallop = Double.isNaN(q) ? UNKNOWN : yallopClass(q);
+        this.odeh = Double.isNaN(v) ? UNKNOWN : odehZone(v);
+    }
+
+    // Visibility after sunset on the given Gregorian day from (latitude, longitude east)
+    public static CrescentVisibility evaluate(long epochDay, double latitude, double longitude) {
+        double sunsetMinutes = SunsetCalculator.computeSunsetUtc(epochDay, latitude, longitude);
+        if (Double.isNaN(sunsetMinutes)) {
+            return new CrescentVisibility(epochDay, Double.NaN, Double.NaN, Double.NaN,
+                    Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        double sunset = LunarEphemeris.julianDay(epochDay, sunsetMinutes);
+        // Negative while the conjunction is still ahead
+        double nearestNewMoon = LunarEphemeris.previousNewMoon(sunset + LunarEphemeris.SYNODIC_MONTH / 2);
+        double age = (sunset - nearestNewMoon) * 24;
+
+        double[] sun = new double[3];
+        double[] moon = new double[3];
+        double lag = lagMinutes(sunset, latitude, longitude, moon);
+
+        // Before conjunction the lit side faces away; after a moonset before
+        // sunset there is no sky to see it in. Neither needs the criteria.
+        if (lag <= 0) {
+            LunarEphemeris.sun(sunset, sun);
+            LunarEphemeris.moon(sunset, moon);
+            return new CrescentVisibility(epochDay, sunset, age, lag,
+                    LunarEphemeris.separation(sun, moon), Double.NaN, Double.NaN,
+                    Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        }
+
+        double best = sunset + lag * 4 / 9 / 1440;
+        LunarEphemeris.sun(best, sun);
+        LunarEphemeris.moon(best, moon);
+        double sunAltitude = LunarEphemeris.altitude(best, sun, latitude, longitude);
+        double moonAltitude = LunarEphemeris.altitude(best, moon, latitude, longitude);
+        double parallax = LunarEphemeris.parallax(moon[LunarEphemeris.DISTANCE]);
+        double topocentricAltitude = moonAltitude - parallax * Math.cos(Math.toRadians(moonAltitude));
+        double arcl = LunarEphemeris.separation(sun, moon);
+
+        // Crescent width in arc minutes, from the topocentric semi-diameter
+        double semiDiameter = 0.27245 * parallax * 60
+                * (1 + Math.sin(Math.toRadians(moonAltitude)) * Math.sin(Math.toRadians(parallax)));
+        double width = semiDiameter * (1 - Math.cos(Math.toRadians(arcl)));
+
+        double geocentricArcv = moonAltitude - sunAltitude;
+        double topocentricArcv = topocentricAltitude - sunAltitude;
+        double q = (geocentricArcv - (11.8371 - width * (6.3226 - width * (0.7319 - width * 0.1018)))) / 10;
+        double v = topocentricArcv - (7.1651 - width * (6.3226 - width * (0.7319 - width * 0.1018)));
+        return new CrescentVisibility(epochDay, sunset, age, lag, arcl, geocentricArcv, width, q, v);
+    }
+
+    static int yallopClass(double q) {
+        if (q > 0.216) {
+            return YALLOP_A;
+        } else if (q > -0.014) {
+            return YALLOP_B;
+        } else if (q > -0.160) {
+            return YALLOP_C;
+        } else if (q > -0.232) {
+            return YALLOP_D;
+        } else if (q > -0.293) {
+            return YALLOP_E;
+        }
+        return YALLOP_F;
+    }
+
+    static int odehZone(double v) {
+        if (v >= 5.65) {
+            return ODEH_NAKED_EYE;
+        } else if (v >= 2) {
+            return ODEH_OPTICAL_AID_MAYBE_NAKED_EYE;
+        } else if (v >= -0.96) {
+            return ODEH_OPTICAL_AID_ONLY;
+        }
+        return ODEH_NOT_VISIBLE;
+    }
+
+    // Minutes from sunset to moonset; zero when the moon is already down
+    private static double lagMinutes(double sunset, double latitude, double longitude, double[] moon) {
+        int minutes = 0;
+        while (minutes <= MAX_LAG && moonAboveHorizon(sunset + minutes / 1440.0, latitude, longitude, moon)) {
+            minutes += SEARCH_STEP;
+        }
+        if (minutes == 0) {
+            return 0;
+        }
+        if (minutes > MAX_LAG) {
+            return MAX_LAG;
+        }
+
+        // Narrow the last step down to well under a minute
+        double low = minutes - SEARCH_STEP;
+        double high = minutes;
+        while (high - low > 0.25) {
+            double mid = (low + high) / 2;
+            if (moonAboveHorizon(sunset + mid / 1440.0, latitude, longitude, moon)) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    // Upper limb above the horizon, allowing for refraction, semi-diameter and parallax
+    private static boolean moonAboveHorizon(double jd, double latitude, double longitude, double[] moon) {
+        LunarEphemeris.moon(jd, moon);
+        double parallax = LunarEphemeris.parallax(moon[LunarEphemeris.DISTANCE]);
+        return LunarEphemeris.altitude(jd, moon, latitude, longitude) > 0.7275 * parallax - 0.5667;
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    // Julian day of sunset, or NaN when the sun did not set
+    public double getSunsetJulianDay() {
+        return sunsetJd;
+    }
+
+    // Hours from the nearest conjunction to sunset
+    public double getMoonAgeHours() {
+        return moonAgeHours;
+    }
+
+    // Minutes from sunset to moonset
+    public double getLagMinutes() {
+        return lagMinutes;
+    }
+
+    // Sun-moon elongation in degrees
+    public double getArcl() {
+        return arcl;
+    }
+
+    // Geocentric moon-over-sun altitude at the best time, in degrees
+    public double getArcv() {
+        return arcv;
+    }
+
+    // Topocentric crescent width in arc minutes
+    public double getWidth() {
+        return width;
+    }
+
+    public double getYallopQ() {
+        return q;
+    }
+
+    public double getOdehV() {
+        return v;
+    }
+
+    public int getYallopClass() {
+        return yallop;
+    }
+
+    public int getOdehZone() {
+        return odeh;
+    }
+
+    // Seen by eye under a clear sky: Yallop A or B
+    public boolean isLikelyVisible() {
+        return yallop == YALLOP_A || yallop == YALLOP_B;
+    }
+}
@@ -0,0 +1,213 @@
+package com.islamiccalendar.core;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+
+// Command-line converter: copies a CSV from stdin to stdout with one more
+// field on every row, the Hijri date (YYYY-MM-DD) of the Gregorian ISO date
+// in the given column. Rows are parsed as bytes in place in a large buffer
+// and dates go through a RangeConverter cursor, so sorted or clustered input
+// runs at millions of rows per second. A first row whose date does not parse
+// is taken as a header; other unparseable or out-of-range dates get an empty
+// field.
+//
+//   java -cp calendar-core.jar com.islamiccalendar.core.CsvDateConverter [column] [umm-al-qura.bin]
+//
+// The column counts from 0 and defaults to 0. Without a table file the
+// tabular calendar is used.
+public final class CsvDateConverter {
+
+    static final int BUFFER_SIZE = 1 << 20;
+    // Room the appended field takes: a comma and YYYY-MM-DD
+    private static final int FIELD_LENGTH = 11;
+    private static final byte[] HEADER_FIELD = {',', 'h', 'i', 'j', 'r', 'i'};
+
+    private final RangeConverter.Cursor cursor;
+    private final int column;
+    private byte[] in = new byte[BUFFER_SIZE];
+    private final byte[] out = new byte[BUFFER_SIZE];
+    private int outLength;
+    private boolean firstRow = true;
+
+    CsvDateConverter(HijriCalendar calendar, int column) {
+        this.cursor = new RangeConverter(calendar).new Cursor();
+        this.column = column;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int column = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        HijriCalendar calendar = TabularHijriCalendar.getInstance();
+        if (args.length > 1) {
+            try (FileChannel channel = FileChannel.open(Paths.get(args[1]))) {
+                calendar = new UmmAlQuraCalendar(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        // Unbuffered standard streams: this class does its own buffering
+        try (InputStream input = new FileInputStream(FileDescriptor.in);
+             OutputStream output = new FileOutputStream(FileDescriptor.out)) {
+            new CsvDateConverter(calendar, column).convert(input, output);
+        }
+    }
+
+    // Copy every row of input to output with its Hijri date appended
+    void convert(InputStream input, OutputStream output) throws IOException {
+        int length = 0;
+        int read;
+        while ((read = input.read(in, length, in.length - length)) > 0) {
+            length += read;
+            int consumed = convertRows(in, length, output);
+            System.arraycopy(in, consumed, in, 0, length - consumed);
+            length -= consumed;
+            // A row that fills the whole buffer: make room for the rest of it
+            if (length == in.length) {
+                byte[] larger = new byte[in.length * 2];
+                System.arraycopy(in, 0, larger, 0, length);
+                in = larger;
+            }
+        }
+        // A last row without a line ending
+        if (length > 0) {
+            convertRow(in, 0, length, length, output);
+        }
+        flush(output);
+    }
+
+    // Convert the complete rows in buf[0, length); returns where the unfinished one starts
+    private int convertRows(byte[] buf, int length, OutputStream output) throws IOException {
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (buf[i] == '\n') {
+                // The field goes before the line ending, CRLF or LF
+                int contentEnd = i > start && buf[i - 1] == '\r' ? i - 1 : i;
+                convertRow(buf, start, contentEnd, i + 1, output);
+                start = i + 1;
+            }
+        }
+        return start;
+    }
+
+    private void convertRow(byte[] buf, int start, int contentEnd, int end, OutputStream output)
+            throws IOException {
+        int rowLength = end - start;
+        if (out.length - outLength < rowLength + FIELD_LENGTH) {
+            flush(output);
+        }
+        if (out.length < rowLength + FIELD_LENGTH) {
+            // Longer than the whole output buffer: pass the row straight through
+            output.write(buf, start, contentEnd - start);
+        } else {
+            System.arraycopy(buf, start, out, outLength, contentEnd - start);
+            outLength += contentEnd - start;
+        }
+
+        long epochDay = parseDate(buf, start, contentEnd);
+        int hijri = epochDay == Long.MIN_VALUE ? -1 : cursor.convert(epochDay);
+        if (hijri >= 0) {
+            out[outLength++] = ',';
+            outLength = writeDate(hijri, out, outLength);
+        } else if (firstRow && epochDay == Long.MIN_VALUE) {
+            System.arraycopy(HEADER_FIELD, 0, out, outLength, HEADER_FIELD.length);
+            outLength += HEADER_FIELD.length;
+        } else {
+            out[outLength++] = ',';
+        }
+        firstRow = false;
+
+        System.arraycopy(buf, contentEnd, out, outLength, end - contentEnd);
+        outLength += end - contentEnd;
+    }
+
+    // Epoch day of the YYYY-MM-DD (optionally quoted) in the row's column,
+    // or Long.MIN_VALUE if there is none
+    private long parseDate(byte[] buf, int start, int end) {
+        int field = 0;
+        boolean quoted = false;
+        int i = start;
+        while (field < column && i < end) {
+            byte b = buf[i++];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                field++;
+            }
+        }
+        if (field < column) {
+            return Long.MIN_VALUE;
+        }
+        if (i < end && buf[i] == '"') {
+            i++;
+        }
+        if (end - i < 10 || buf[i + 4] != '-' || buf[i + 7] != '-') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(buf, i, 4);
+        int month = digits(buf, i + 5, 2);
+        int day = digits(buf, i + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Long.MIN_VALUE;
+        }
+        int after = i + 10;
+        if (after < end && buf[after] != ',' && buf[after] != '"') {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day);
+    }
+
+    private static int digits(byte[] buf, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Days-from-civil over 400-year eras starting 0000-03-01
+    static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    // YYYY-MM-DD of a packed Hijri date; returns the end offset
+    private static int writeDate(int hijri, byte[] sink, int offset) {
+        int year = HijriCalendar.year(hijri);
+        int month = HijriCalendar.month(hijri);
+        int day = HijriCalendar.day(hijri);
+        for (int i = 3; i >= 0; i--) {
+            sink[offset + i] = (byte) ('0' + year % 10);
+            year /= 10;
+        }
+        sink[offset + 4] = '-';
+        sink[offset + 5] = (byte) ('0' + month / 10);
+        sink[offset + 6] = (byte) ('0' + month % 10);
+        sink[offset + 7] = '-';
+        sink[offset + 8] = (byte) ('0' + day / 10);
+        sink[offset + 9] = (byte) ('0' + day % 10);
+        return offset + 10;
+    }
+
+    private void flush(OutputStream output) throws IOException {
+        output.write(out, 0, outLength);
+        outLength = 0;
+    }
+}
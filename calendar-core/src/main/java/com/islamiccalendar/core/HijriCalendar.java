@@ -0,0 +1,47 @@
+package com.islamiccalendar.core;
+
+// Base class for Hijri calendar engines.
+// Dates cross the API as epoch days (days since 1970-01-01) or as a packed int
+// holding year, month and day, so conversions never allocate.
+public abstract class HijriCalendar {
+
+    // Average length of a synodic month, used to estimate a month index in O(1)
+    static final double MEAN_MONTH_DAYS = 29.530588853;
+
+    // Convert an epoch day to a packed Hijri date (see pack())
+    public abstract int toHijri(long epochDay);
+
+    // Convert a Hijri date to an epoch day
+    public abstract long toEpochDay(int year, int month, int day);
+
+    // Number of days (29 or 30) in the given Hijri month
+    public abstract int lengthOfMonth(int year, int month);
+
+    // First and last Hijri years this engine can convert
+    public abstract int getMinYear();
+
+    public abstract int getMaxYear();
+
+    // Check whether an epoch day falls inside the supported range
+    public boolean isSupported(long epochDay) {
+        return epochDay >= toEpochDay(getMinYear(), 1, 1)
+                && epochDay < toEpochDay(getMaxYear(), 12, 1) + lengthOfMonth(getMaxYear(), 12);
+    }
+
+    // Pack a Hijri date into a single int: year in the high bits, then month and day
+    public static int pack(int year, int month, int day) {
+        return (year << 9) | (month << 5) | day;
+    }
+
+    public static int year(int packed) {
+        return packed >>> 9;
+    }
+
+    public static int month(int packed) {
+        return (packed >>> 5) & 0xF;
+    }
+
+    public static int day(int packed) {
+        return packed & 0x1F;
+    }
+}
@@ -0,0 +1,56 @@
+package com.islamiccalendar.core;
+
+// Immutable Hijri date. Hot paths pass the packed int form from
+// HijriCalendar.pack() instead; this is for code that wants a value object.
+public final class HijriDate {
+
+    private final int year;
+    private final int month;
+    private final int day;
+
+    public HijriDate(int year, int month, int day) {
+        this.year = year;
+        this.month = month;
+        this.day = day;
+    }
+
+    public static HijriDate fromPacked(int packed) {
+        return new HijriDate(HijriCalendar.year(packed), HijriCalendar.month(packed), HijriCalendar.day(packed));
+    }
+
+    public int toPacked() {
+        return HijriCalendar.pack(year, month, day);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    // Full date string (e.g., "RAJAB 15 1447 A.H")
+    public static String format(int year, int month, int day) {
+        return HijriDateFormatter.fullDate(HijriCalendar.pack(year, month, day));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HijriDate && ((HijriDate) other).toPacked() == toPacked();
+    }
+
+    @Override
+    public int hashCode() {
+        return toPacked();
+    }
+
+    @Override
+    public String toString() {
+        return format(year, month, day);
+    }
+}
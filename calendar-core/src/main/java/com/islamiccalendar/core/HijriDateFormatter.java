@@ -0,0 +1,150 @@
+package com.islamiccalendar.core;
+
+// Date text for the widget and the main screen without per-render garbage.
+// Day numbers are precomputed in both numeral systems, year and "MONTH day"
+// strings are cached on first use, and the full date can be written into a
+// caller-owned char[] or StringBuilder. Caches are filled with benign races:
+// two threads may build the same immutable String, and either copy is fine.
+public final class HijriDateFormatter {
+
+    // Longest full date, e.g. "DHU AL-QI'DAH 30 1447 A.H"
+    public static final int MAX_FULL_DATE_LENGTH = 32;
+
+    private static final String ERA = " A.H";
+    private static final int MIN_CACHED_YEAR = TabularHijriCalendar.MIN_YEAR;
+    private static final int MAX_CACHED_YEAR = TabularHijriCalendar.MAX_YEAR;
+
+    private static final String[] WESTERN_DAYS = new String[31];
+    private static final String[] ARABIC_DAYS = new String[31];
+
+    private static final String[] WESTERN_YEARS = new String[MAX_CACHED_YEAR - MIN_CACHED_YEAR + 1];
+    private static final String[] ARABIC_YEARS = new String[WESTERN_YEARS.length];
+    private static final String[] YEARS_WITH_ERA = new String[WESTERN_YEARS.length];
+    private static final String[] MONTH_DAYS = new String[12 * 31];
+
+    static {
+        for (int day = 1; day <= 30; day++) {
+            WESTERN_DAYS[day] = String.valueOf(day).intern();
+            ARABIC_DAYS[day] = ArabicNumerals.format(day).intern();
+        }
+    }
+
+    // Last full date handed out as a String, so repeated renders of the same day reuse it
+    private static volatile FullDate lastFullDate;
+
+    private HijriDateFormatter() {
+    }
+
+    // Day of month (1-30) in Western or Arabic-Indic digits
+    public static String day(int day, boolean arabic) {
+        if (day < 1 || day > 30) {
+            return arabic ? ArabicNumerals.format(day) : String.valueOf(day);
+        }
+        return arabic ? ARABIC_DAYS[day] : WESTERN_DAYS[day];
+    }
+
+    // Year in Western or Arabic-Indic digits
+    public static String year(int year, boolean arabic) {
+        if (!isCachedYear(year)) {
+            return arabic ? ArabicNumerals.format(year) : String.valueOf(year);
+        }
+        String[] cache = arabic ? ARABIC_YEARS : WESTERN_YEARS;
+        String text = cache[year - MIN_CACHED_YEAR];
+        if (text == null) {
+            text = arabic ? ArabicNumerals.format(year) : String.valueOf(year);
+            cache[year - MIN_CACHED_YEAR] = text;
+        }
+        return text;
+    }
+
+    // Year with the era suffix (e.g., "1447 A.H")
+    public static String yearWithEra(int year) {
+        if (!isCachedYear(year)) {
+            return year + ERA;
+        }
+        String text = YEARS_WITH_ERA[year - MIN_CACHED_YEAR];
+        if (text == null) {
+            text = year + ERA;
+            YEARS_WITH_ERA[year - MIN_CACHED_YEAR] = text;
+        }
+        return text;
+    }
+
+    // English month name and day (e.g., "RAJAB 15")
+    public static String monthDay(int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > 30) {
+            return HijriMonths.englishName(month) + " " + day;
+        }
+        int index = (month - 1) * 31 + day;
+        String text = MONTH_DAYS[index];
+        if (text == null) {
+            text = HijriMonths.englishName(month) + " " + WESTERN_DAYS[day];
+            MONTH_DAYS[index] = text;
+        }
+        return text;
+    }
+
+    // Full date string (e.g., "RAJAB 15 1447 A.H") for a packed date
+    public static String fullDate(int packed) {
+        FullDate last = lastFullDate;
+        if (last != null && last.packed == packed) {
+            return last.text;
+        }
+        char[] sink = new char[MAX_FULL_DATE_LENGTH];
+        String text = new String(sink, 0, writeFullDate(packed, sink));
+        lastFullDate = new FullDate(packed, text);
+        return text;
+    }
+
+    // Write the full date into sink (at least MAX_FULL_DATE_LENGTH chars) and return its length
+    public static int writeFullDate(int packed, char[] sink) {
+        int length = copy(HijriMonths.englishName(HijriCalendar.month(packed)), sink, 0);
+        sink[length++] = ' ';
+        length = writeNumber(HijriCalendar.day(packed), sink, length);
+        sink[length++] = ' ';
+        length = writeNumber(HijriCalendar.year(packed), sink, length);
+        return copy(ERA, sink, length);
+    }
+
+    // Append the full date to a reused builder
+    public static StringBuilder appendFullDate(int packed, StringBuilder sink) {
+        return sink.append(HijriMonths.englishName(HijriCalendar.month(packed)))
+                .append(' ')
+                .append(HijriCalendar.day(packed))
+                .append(' ')
+                .append(HijriCalendar.year(packed))
+                .append(ERA);
+    }
+
+    private static boolean isCachedYear(int year) {
+        return year >= MIN_CACHED_YEAR && year <= MAX_CACHED_YEAR;
+    }
+
+    private static int copy(String text, char[] sink, int offset) {
+        text.getChars(0, text.length(), sink, offset);
+        return offset + text.length();
+    }
+
+    // Write a non-negative number in Western digits
+    private static int writeNumber(int number, char[] sink, int offset) {
+        int digits = 1;
+        for (int rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            sink[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static final class FullDate {
+        final int packed;
+        final String text;
+
+        FullDate(int packed, String text) {
+            this.packed = packed;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.islamiccalendar.core;
+
+// Hijri month names. Months are numbered 1-12; anything else falls back to Muharram.
+public final class HijriMonths {
+
+    // Hijri month names in Arabic
+    private static final String[] ARABIC_NAMES = {
+            "مُحَرَّم", "صَفَر", "رَبِيع ٱلْأَوَّل", "رَبِيع ٱلثَّانِي",
+            "جُمَادَىٰ ٱلْأُولَىٰ", "جُمَادَىٰ ٱلثَّانِيَة", "رَجَب", "شَعْبَان",
+            "رَمَضَان", "شَوَّال", "ذُو ٱلْقَعْدَة", "ذُو ٱلْحِجَّة"
+    };
+
+    // Hijri month names in English
+    private static final String[] ENGLISH_NAMES = {
+            "MUHARRAM", "SAFAR", "RABI' AL-AWWAL", "RABI' AL-THANI",
+            "JUMADA AL-ULA", "JUMADA AL-THANI", "RAJAB", "SHA'BAN",
+            "RAMADAN", "SHAWWAL", "DHU AL-QI'DAH", "DHU AL-HIJJAH"
+    };
+
+    private HijriMonths() {
+    }
+
+    public static String arabicName(int month) {
+        return ARABIC_NAMES[indexOf(month)];
+    }
+
+    public static String englishName(int month) {
+        return ENGLISH_NAMES[indexOf(month)];
+    }
+
+    private static int indexOf(int month) {
+        return month >= 1 && month <= 12 ? month - 1 : 0;
+    }
+}
@@ -0,0 +1,245 @@
+package com.islamiccalendar.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Hijri overlay calendar in iCalendar (RFC 5545) form: an all-day event for
+// every day of a Gregorian range titled with its Hijri date, plus one for
+// each month start and each IslamicEvents day. VEVENTs are written straight
+// into a reused ByteBuffer that is drained to the channel whenever it runs
+// low, so memory stays constant however many years are exported. Nothing
+// depends on the clock or on thread timing, so the same input always gives
+// the same bytes.
+public final class IcsExporter {
+
+    // Days rendered by one fork-join task
+    static final int CHUNK_DAYS = 512;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Room one day's events can take: a day, a month start and an event
+    private static final int MAX_DAY_LENGTH = 1024;
+
+    private static final byte[] HEADER = ascii("BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//Islamic Calendar//Hijri Overlay//EN\r\n"
+            + "CALSCALE:GREGORIAN\r\n"
+            + "X-WR-CALNAME:Hijri Calendar\r\n");
+    private static final byte[] FOOTER = ascii("END:VCALENDAR\r\n");
+
+    private final HijriCalendar calendar;
+
+    public IcsExporter(HijriCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    // Write the calendar for epoch days first to last inclusive
+    public void export(long first, long last, WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(HEADER);
+        Renderer renderer = new Renderer(calendar, eventsFor(first, last));
+        for (long epochDay = first; epochDay <= last; epochDay++) {
+            if (buffer.remaining() < MAX_DAY_LENGTH) {
+                drain(buffer, out);
+            }
+            renderer.day(epochDay, buffer);
+        }
+        buffer.put(FOOTER);
+        drain(buffer, out);
+    }
+
+    // The same bytes as export(), with the range split into CHUNK_DAYS
+    // chunks rendered in parallel on the pool. Chunks are rendered a window
+    // of one per worker at a time into per-slot buffers, then written in
+    // range order, so memory is bounded by the pool's parallelism.
+    public void exportParallel(long first, long last, WritableByteChannel out, ForkJoinPool pool)
+            throws IOException {
+        IslamicEvents events = eventsFor(first, last);
+        int slots = Math.max(1, pool.getParallelism());
+        ByteBuffer[] buffers = new ByteBuffer[slots];
+        for (int i = 0; i < slots; i++) {
+            buffers[i] = ByteBuffer.allocate(CHUNK_DAYS * MAX_DAY_LENGTH);
+        }
+        List<ForkJoinTask<ByteBuffer>> tasks = new ArrayList<>(slots);
+
+        writeAll(ByteBuffer.wrap(HEADER), out);
+        long start = first;
+        while (start <= last) {
+            int used = 0;
+            for (; used < slots && start <= last; used++) {
+                long chunkFirst = start;
+                long chunkLast = Math.min(last, start + CHUNK_DAYS - 1);
+                ByteBuffer buffer = buffers[used];
+                tasks.add(pool.submit(() -> {
+                    buffer.clear();
+                    Renderer renderer = new Renderer(calendar, events);
+                    for (long epochDay = chunkFirst; epochDay <= chunkLast; epochDay++) {
+                        renderer.day(epochDay, buffer);
+                    }
+                    buffer.flip();
+                    return buffer;
+                }));
+                start = chunkLast + 1;
+            }
+            for (ForkJoinTask<ByteBuffer> task : tasks) {
+                writeAll(task.join(), out);
+            }
+            tasks.clear();
+        }
+        writeAll(ByteBuffer.wrap(FOOTER), out);
+    }
+
+    // Events of the Hijri years the range covers; empty if it is outside the calendar
+    private IslamicEvents eventsFor(long first, long last) {
+        long from = Math.max(first, firstSupportedDay(calendar));
+        long to = Math.min(last, lastSupportedDay(calendar));
+        if (from > to) {
+            return IslamicEvents.build(calendar, calendar.getMaxYear() + 1, calendar.getMaxYear());
+        }
+        return IslamicEvents.build(calendar, HijriCalendar.year(calendar.toHijri(from)),
+                HijriCalendar.year(calendar.toHijri(to)));
+    }
+
+    private static long firstSupportedDay(HijriCalendar calendar) {
+        return calendar.toEpochDay(calendar.getMinYear(), 1, 1);
+    }
+
+    private static long lastSupportedDay(HijriCalendar calendar) {
+        int year = calendar.getMaxYear();
+        return calendar.toEpochDay(year, 12, 1) + calendar.lengthOfMonth(year, 12) - 1;
+    }
+
+    // Write out what has been put into the buffer, and empty it for reuse
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        writeAll(buffer, out);
+        buffer.clear();
+    }
+
+    private static void writeAll(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+
+    // Writes the VEVENTs of one day at a time; holds only scratch space, so
+    // each thread uses its own
+    private static final class Renderer {
+        private final HijriCalendar calendar;
+        private final IslamicEvents events;
+        private final long firstDay;
+        private final long lastDay;
+        private final char[] fullDate = new char[HijriDateFormatter.MAX_FULL_DATE_LENGTH];
+        private final byte[] date = new byte[8];
+        private final byte[] nextDate = new byte[8];
+        private int nextEvent = -1;
+
+        Renderer(HijriCalendar calendar, IslamicEvents events) {
+            this.calendar = calendar;
+            this.events = events;
+            this.firstDay = firstSupportedDay(calendar);
+            this.lastDay = lastSupportedDay(calendar);
+        }
+
+        void day(long epochDay, ByteBuffer out) {
+            if (epochDay < firstDay || epochDay > lastDay) {
+                return;
+            }
+            int hijri = calendar.toHijri(epochDay);
+            writeDate(epochDay, date);
+            writeDate(epochDay + 1, nextDate);
+
+            int length = HijriDateFormatter.writeFullDate(hijri, fullDate);
+            event(out, "day", fullDate, length, null);
+            if (HijriCalendar.day(hijri) == 1) {
+                event(out, "month", null, 0, "Start of " + HijriMonths.englishName(HijriCalendar.month(hijri))
+                        + " " + HijriCalendar.year(hijri));
+            }
+
+            // Days arrive in order within a renderer, so after one binary
+            // search the next event only moves forward
+            if (nextEvent < 0) {
+                nextEvent = events.rangeStart(epochDay);
+            }
+            while (nextEvent < events.size() && events.epochDayAt(nextEvent) == epochDay) {
+                int kind = events.kindAt(nextEvent);
+                event(out, "event" + kind, null, 0, IslamicEvents.name(kind));
+                nextEvent++;
+            }
+        }
+
+        // One all-day VEVENT; the UID is the date and a tag, so it is stable across exports
+        private void event(ByteBuffer out, String tag, char[] summary, int summaryLength, String summaryText) {
+            put(out, "BEGIN:VEVENT\r\nUID:");
+            out.put(date);
+            out.put((byte) '-');
+            put(out, tag);
+            put(out, "@hijri.islamiccalendar\r\nDTSTAMP:");
+            out.put(date);
+            put(out, "T000000Z\r\nDTSTART;VALUE=DATE:");
+            out.put(date);
+            put(out, "\r\nDTEND;VALUE=DATE:");
+            out.put(nextDate);
+            put(out, "\r\nSUMMARY:");
+            if (summary != null) {
+                for (int i = 0; i < summaryLength; i++) {
+                    putText(out, summary[i]);
+                }
+            } else {
+                for (int i = 0; i < summaryText.length(); i++) {
+                    putText(out, summaryText.charAt(i));
+                }
+            }
+            put(out, "\r\nTRANSP:TRANSPARENT\r\nEND:VEVENT\r\n");
+        }
+
+        private static void put(ByteBuffer out, String ascii) {
+            for (int i = 0; i < ascii.length(); i++) {
+                out.put((byte) ascii.charAt(i));
+            }
+        }
+
+        // TEXT value character, escaped as RFC 5545 requires; names are ASCII
+        private static void putText(ByteBuffer out, char c) {
+            if (c == ',' || c == ';' || c == '\\') {
+                out.put((byte) '\\');
+            }
+            out.put((byte) c);
+        }
+
+        // YYYYMMDD of an epoch day, without going through LocalDate
+        private static void writeDate(long epochDay, byte[] sink) {
+            // Civil-from-days over 400-year eras starting 0000-03-01
+            long z = epochDay + 719468;
+            long era = Math.floorDiv(z, 146097);
+            long dayOfEra = z - era * 146097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long mp = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+            int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+            for (int i = 3; i >= 0; i--) {
+                sink[i] = (byte) ('0' + year % 10);
+                year /= 10;
+            }
+            sink[4] = (byte) ('0' + month / 10);
+            sink[5] = (byte) ('0' + month % 10);
+            sink[6] = (byte) ('0' + day / 10);
+            sink[7] = (byte) ('0' + day % 10);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.islamiccalendar.core;
+
+import java.util.Arrays;
+
+// The significant days of a span of Hijri years, materialized once into a
+// sorted long[] of epoch days with a parallel byte[] of kinds. "Next event",
+// "events in range" and "days until" are binary searches over that array.
+// Each event is on the epoch day of its Hijri date, i.e. the daytime that
+// follows the sunset the Hijri day begins at.
+public final class IslamicEvents {
+
+    // Kinds of event, in the order they fall in a year
+    public static final int ASHURA = 0;
+    public static final int MAWLID = 1;
+    public static final int RAMADAN_START = 2;
+    public static final int LAYLAT_AL_QADR = 3;
+    public static final int EID_AL_FITR = 4;
+    public static final int DAY_OF_ARAFAH = 5;
+    public static final int EID_AL_ADHA = 6;
+
+    private static final String[] NAMES = {
+            "Ashura", "Mawlid", "Ramadan", "Laylat al-Qadr", "Eid al-Fitr", "Day of Arafah", "Eid al-Adha"
+    };
+
+    // Hijri (month, day, kind) of every event in a year, in date order.
+    // Laylat al-Qadr is sought on the odd nights of the last ten of Ramadan.
+    private static final int[] YEAR = {
+            1, 10, ASHURA,
+            3, 12, MAWLID,
+            9, 1, RAMADAN_START,
+            9, 21, LAYLAT_AL_QADR,
+            9, 23, LAYLAT_AL_QADR,
+            9, 25, LAYLAT_AL_QADR,
+            9, 27, LAYLAT_AL_QADR,
+            9, 29, LAYLAT_AL_QADR,
+            10, 1, EID_AL_FITR,
+            12, 9, DAY_OF_ARAFAH,
+            12, 10, EID_AL_ADHA,
+    };
+    private static final int PER_YEAR = YEAR.length / 3;
+
+    private final int firstYear;
+    private final int lastYear;
+    private final long[] epochDays;
+    private final byte[] kinds;
+
+    private IslamicEvents(int firstYear, int lastYear, long[] epochDays, byte[] kinds) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.epochDays = epochDays;
+        this.kinds = kinds;
+    }
+
+    // Events of Hijri years firstYear to lastYear inclusive, as the calendar
+    // places them; years outside the calendar's range are left out
+    public static IslamicEvents build(HijriCalendar calendar, int firstYear, int lastYear) {
+        firstYear = Math.max(firstYear, calendar.getMinYear());
+        lastYear = Math.min(lastYear, calendar.getMaxYear());
+        int years = Math.max(0, lastYear - firstYear + 1);
+        long[] epochDays = new long[years * PER_YEAR];
+        byte[] kinds = new byte[epochDays.length];
+
+        // Years and the table are both in date order, so the array comes out sorted
+        int n = 0;
+        for (int year = firstYear; year <= lastYear; year++) {
+            for (int i = 0; i < YEAR.length; i += 3) {
+                epochDays[n] = calendar.toEpochDay(year, YEAR[i], YEAR[i + 1]);
+                kinds[n] = (byte) YEAR[i + 2];
+                n++;
+            }
+        }
+        return new IslamicEvents(firstYear, lastYear, epochDays, kinds);
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+
+    public long epochDayAt(int index) {
+        return epochDays[index];
+    }
+
+    public int kindAt(int index) {
+        return kinds[index];
+    }
+
+    // Index of the first event on or after epochDay, or -1 if there is none
+    public int next(long epochDay) {
+        int index = firstOnOrAfter(epochDay);
+        return index < epochDays.length ? index : -1;
+    }
+
+    // Index of the first event after epochDay, or -1 if there is none
+    public int nextAfter(long epochDay) {
+        return next(epochDay + 1);
+    }
+
+    // Events from first to last inclusive are at indices [rangeStart, rangeEnd)
+    public int rangeStart(long first) {
+        return firstOnOrAfter(first);
+    }
+
+    public int rangeEnd(long last) {
+        return firstOnOrAfter(last + 1);
+    }
+
+    // Days from epochDay to the next event, 0 on the day itself, or -1 if
+    // there is no event left in the span
+    public long daysUntil(long epochDay) {
+        int index = next(epochDay);
+        return index < 0 ? -1 : epochDays[index] - epochDay;
+    }
+
+    public static String name(int kind) {
+        return NAMES[kind];
+    }
+
+    // Smallest index whose epoch day is at least epochDay, or size() if none
+    private int firstOnOrAfter(long epochDay) {
+        int index = Arrays.binarySearch(epochDays, epochDay);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Two events may share a day; start at the first of them
+        while (index > 0 && epochDays[index - 1] == epochDay) {
+            index--;
+        }
+        return index;
+    }
+}
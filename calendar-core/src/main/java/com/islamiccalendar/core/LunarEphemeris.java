@@ -0,0 +1,198 @@
+package com.islamiccalendar.core;
+
+// Offline sun and moon positions, good to a few arc minutes, from the
+// truncated series in Meeus, Astronomical Algorithms (chapters 25, 47 and
+// 49). Times are Julian days (UT); angles are degrees. Positions are written
+// into a caller's double[] so a batch of evaluations allocates nothing.
+public final class LunarEphemeris {
+
+    // Julian day of 1970-01-01T00:00Z
+    public static final double JD_UNIX_EPOCH = 2440587.5;
+
+    // Mean length of a lunation in days
+    public static final double SYNODIC_MONTH = 29.530588861;
+
+    private static final double EARTH_RADIUS_KM = 6378.14;
+
+    // Indices into a position array
+    public static final int RA = 0;
+    public static final int DEC = 1;
+    public static final int DISTANCE = 2;
+
+    private LunarEphemeris() {
+    }
+
+    // Julian day at the given UTC minutes after midnight of an epoch day
+    public static double julianDay(long epochDay, double utcMinutes) {
+        return JD_UNIX_EPOCH + epochDay + utcMinutes / 1440.0;
+    }
+
+    // Apparent right ascension and declination of the sun
+    public static void sun(double jd, double[] out) {
+        double t = (jd - 2451545.0) / 36525.0;
+        double meanLongitude = 280.46646 + t * (36000.76983 + t * 0.0003032);
+        double anomaly = Math.toRadians(357.52911 + t * (35999.05029 - 0.0001537 * t));
+        double centre = Math.sin(anomaly) * (1.914602 - t * (0.004817 + 0.000014 * t))
+                + Math.sin(2 * anomaly) * (0.019993 - 0.000101 * t)
+                + Math.sin(3 * anomaly) * 0.000289;
+        double omega = Math.toRadians(125.04 - 1934.136 * t);
+        double longitude = meanLongitude + centre - 0.00569 - 0.00478 * Math.sin(omega);
+        double obliquity = meanObliquity(t) + 0.00256 * Math.cos(omega);
+        toEquatorial(longitude, 0, obliquity, out);
+        out[DISTANCE] = 149597870.7;
+    }
+
+    // Geocentric right ascension, declination and distance (km) of the moon
+    public static void moon(double jd, double[] out) {
+        double t = (jd - 2451545.0) / 36525.0;
+        double meanLongitude = 218.3164477 + 481267.88123421 * t;
+        double d = Math.toRadians(297.8501921 + 445267.1114034 * t);
+        double m = Math.toRadians(357.5291092 + 35999.0502909 * t);
+        double mp = Math.toRadians(134.9633964 + 477198.8675055 * t);
+        double f = Math.toRadians(93.2720950 + 483202.0175233 * t);
+        double e = 1 - t * (0.002516 + 0.0000074 * t);
+
+        double longitude = meanLongitude
+                + 6.288774 * Math.sin(mp)
+                + 1.274027 * Math.sin(2 * d - mp)
+                + 0.658314 * Math.sin(2 * d)
+                + 0.213618 * Math.sin(2 * mp)
+                - 0.185116 * e * Math.sin(m)
+                - 0.114332 * Math.sin(2 * f)
+                + 0.058793 * Math.sin(2 * d - 2 * mp)
+                + 0.057066 * e * Math.sin(2 * d - m - mp)
+                + 0.053322 * Math.sin(2 * d + mp)
+                + 0.045758 * e * Math.sin(2 * d - m)
+                - 0.040923 * e * Math.sin(m - mp)
+                - 0.034720 * Math.sin(d)
+                - 0.030383 * e * Math.sin(m + mp)
+                + 0.015327 * Math.sin(2 * d - 2 * f)
+                - 0.012528 * Math.sin(mp + 2 * f)
+                + 0.010980 * Math.sin(mp - 2 * f)
+                + 0.010675 * Math.sin(4 * d - mp)
+                + 0.010034 * Math.sin(3 * mp)
+                + 0.008548 * Math.sin(4 * d - 2 * mp)
+                - 0.007888 * e * Math.sin(2 * d + m - mp)
+                - 0.006766 * e * Math.sin(2 * d + m)
+                - 0.005163 * Math.sin(d - mp)
+                + 0.004987 * e * Math.sin(d + m)
+                + 0.004036 * e * Math.sin(2 * d - m + mp);
+
+        double latitude = 5.128122 * Math.sin(f)
+                + 0.280602 * Math.sin(mp + f)
+                + 0.277693 * Math.sin(mp - f)
+                + 0.173237 * Math.sin(2 * d - f)
+                + 0.055413 * Math.sin(2 * d - mp + f)
+                + 0.046271 * Math.sin(2 * d - mp - f)
+                + 0.032573 * Math.sin(2 * d + f)
+                + 0.017198 * Math.sin(2 * mp + f)
+                + 0.009266 * Math.sin(2 * d + mp - f)
+                + 0.008822 * Math.sin(2 * mp - f);
+
+        double distance = 385000.56
+                - 20905.355 * Math.cos(mp)
+                - 3699.111 * Math.cos(2 * d - mp)
+                - 2955.968 * Math.cos(2 * d)
+                - 569.925 * Math.cos(2 * mp)
+                + 48.888 * e * Math.cos(m)
+                - 3.149 * Math.cos(2 * f)
+                + 246.158 * Math.cos(2 * d - 2 * mp)
+                - 152.138 * e * Math.cos(2 * d - m - mp)
+                - 170.733 * Math.cos(2 * d + mp)
+                - 204.586 * e * Math.cos(2 * d - m)
+                - 129.620 * e * Math.cos(m - mp)
+                + 108.743 * Math.cos(d)
+                + 104.755 * e * Math.cos(m + mp);
+
+        toEquatorial(longitude, latitude, meanObliquity(t), out);
+        out[DISTANCE] = distance;
+    }
+
+    // Horizontal parallax of a body at the given distance
+    public static double parallax(double distanceKm) {
+        return Math.toDegrees(Math.asin(EARTH_RADIUS_KM / distanceKm));
+    }
+
+    // Geometric altitude of a position seen from (latitude, longitude east)
+    public static double altitude(double jd, double[] position, double latitude, double longitude) {
+        double hourAngle = Math.toRadians(siderealTime(jd) + longitude - position[RA]);
+        double lat = Math.toRadians(latitude);
+        double dec = Math.toRadians(position[DEC]);
+        return Math.toDegrees(Math.asin(Math.sin(lat) * Math.sin(dec)
+                + Math.cos(lat) * Math.cos(dec) * Math.cos(hourAngle)));
+    }
+
+    // Angular separation of two positions
+    public static double separation(double[] a, double[] b) {
+        double decA = Math.toRadians(a[DEC]);
+        double decB = Math.toRadians(b[DEC]);
+        double cos = Math.sin(decA) * Math.sin(decB)
+                + Math.cos(decA) * Math.cos(decB) * Math.cos(Math.toRadians(a[RA] - b[RA]));
+        return Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cos))));
+    }
+
+    // Julian day of the last new moon at or before jd
+    public static double previousNewMoon(double jd) {
+        long k = (long) Math.floor((jd - 2451550.09766) / SYNODIC_MONTH) + 1;
+        double newMoon = newMoon(k);
+        while (newMoon > jd) {
+            newMoon = newMoon(--k);
+        }
+        return newMoon;
+    }
+
+    // Julian day (UT) of lunation k, counted from the new moon of 2000-01-06
+    public static double newMoon(long k) {
+        double t = k / 1236.85;
+        double jde = 2451550.09766 + SYNODIC_MONTH * k
+                + t * t * (0.00015437 + t * (-0.000000150 + t * 0.00000000073));
+        double e = 1 - t * (0.002516 + 0.0000074 * t);
+        double m = Math.toRadians(2.5534 + 29.10535670 * k - t * t * (0.0000014 + t * 0.00000011));
+        double mp = Math.toRadians(201.5643 + 385.81693528 * k
+                + t * t * (0.0107582 + t * (0.00001238 - t * 0.000000058)));
+        double f = Math.toRadians(160.7108 + 390.67050284 * k
+                - t * t * (0.0016118 + t * (0.00000227 - t * 0.000000011)));
+        double omega = Math.toRadians(124.7746 - 1.56375588 * k + t * t * (0.0020672 + t * 0.00000215));
+
+        jde += -0.40720 * Math.sin(mp)
+                + 0.17241 * e * Math.sin(m)
+                + 0.01608 * Math.sin(2 * mp)
+                + 0.01039 * Math.sin(2 * f)
+                + 0.00739 * e * Math.sin(mp - m)
+                - 0.00514 * e * Math.sin(mp + m)
+                + 0.00208 * e * e * Math.sin(2 * m)
+                - 0.00111 * Math.sin(mp - 2 * f)
+                - 0.00057 * Math.sin(mp + 2 * f)
+                + 0.00056 * e * Math.sin(2 * mp + m)
+                - 0.00042 * Math.sin(3 * mp)
+                + 0.00042 * e * Math.sin(m + 2 * f)
+                + 0.00038 * e * Math.sin(m - 2 * f)
+                - 0.00024 * e * Math.sin(2 * mp - m)
+                - 0.00017 * Math.sin(omega)
+                - 0.00007 * Math.sin(mp + 2 * m);
+
+        // Terrestrial to universal time; about 69 s this century
+        return jde - 69.0 / 86400;
+    }
+
+    // Greenwich mean sidereal time
+    static double siderealTime(double jd) {
+        double t = (jd - 2451545.0) / 36525.0;
+        return 280.46061837 + 360.98564736629 * (jd - 2451545.0) + 0.000387933 * t * t;
+    }
+
+    private static double meanObliquity(double t) {
+        return 23.439291 - 0.0130042 * t;
+    }
+
+    private static void toEquatorial(double longitude, double latitude, double obliquity, double[] out) {
+        double lambda = Math.toRadians(longitude);
+        double beta = Math.toRadians(latitude);
+        double epsilon = Math.toRadians(obliquity);
+        double ra = Math.toDegrees(Math.atan2(
+                Math.sin(lambda) * Math.cos(epsilon) - Math.tan(beta) * Math.sin(epsilon), Math.cos(lambda)));
+        out[RA] = ra < 0 ? ra + 360 : ra;
+        out[DEC] = Math.toDegrees(Math.asin(Math.sin(beta) * Math.cos(epsilon)
+                + Math.cos(beta) * Math.sin(epsilon) * Math.sin(lambda)));
+    }
+}
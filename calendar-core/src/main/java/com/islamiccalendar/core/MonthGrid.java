@@ -0,0 +1,131 @@
+package com.islamiccalendar.core;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// One Hijri month laid out as six weeks of seven days, Sunday first, the way
+// a month view draws it. Every cell's Hijri date, Gregorian date and event
+// kind is worked out once into primitive arrays, so drawing or redrawing the
+// month is only array reads. Cells before and after the month hold the
+// neighbouring months' days; cells the calendar does not reach hold 0.
+public final class MonthGrid {
+
+    public static final int COLUMNS = 7;
+    public static final int CELLS = 6 * COLUMNS;
+    // Event kind of a cell with no event
+    public static final int NO_EVENT = -1;
+
+    private final int year;
+    private final int month;
+    private final long firstEpochDay;
+    private final int firstCell;
+    private final int length;
+    private final int[] hijri = new int[CELLS];
+    private final int[] gregorian = new int[CELLS];
+    private final byte[] events = new byte[CELLS];
+
+    private MonthGrid(int year, int month, long firstEpochDay, int firstCell, int length) {
+        this.year = year;
+        this.month = month;
+        this.firstEpochDay = firstEpochDay;
+        this.firstCell = firstCell;
+        this.length = length;
+    }
+
+    // Lay out a month as the calendar places it
+    public static MonthGrid compute(HijriCalendar calendar, int year, int month) {
+        long monthStart = calendar.toEpochDay(year, month, 1);
+        // 1970-01-01 was a Thursday, column 4 of a week starting on Sunday
+        int firstCell = Math.floorMod(monthStart + 4, COLUMNS);
+        long first = monthStart - firstCell;
+        MonthGrid grid = new MonthGrid(year, month, first, firstCell, calendar.lengthOfMonth(year, month));
+
+        // Hijri dates in one walk, leaving out days past either end of the calendar
+        RangeConverter converter = new RangeConverter(calendar);
+        long from = Math.max(first, converter.getFirstDay());
+        long to = Math.min(first + CELLS - 1, converter.getLastDay());
+        converter.convertRange(from, (int) (to - from + 1), grid.hijri, (int) (from - first));
+
+        // Gregorian dates, asking for a month length only when a month ends
+        LocalDate date = LocalDate.ofEpochDay(first);
+        int gregorianYear = date.getYear();
+        int gregorianMonth = date.getMonthValue();
+        int gregorianDay = date.getDayOfMonth();
+        int gregorianLength = date.lengthOfMonth();
+        for (int cell = 0; cell < CELLS; cell++) {
+            grid.gregorian[cell] = HijriCalendar.pack(gregorianYear, gregorianMonth, gregorianDay);
+            if (++gregorianDay > gregorianLength) {
+                gregorianDay = 1;
+                if (++gregorianMonth > 12) {
+                    gregorianMonth = 1;
+                    gregorianYear++;
+                }
+                gregorianLength = LocalDate.of(gregorianYear, gregorianMonth, 1).lengthOfMonth();
+            }
+        }
+
+        // The six weeks can reach into the years either side
+        Arrays.fill(grid.events, (byte) NO_EVENT);
+        IslamicEvents index = IslamicEvents.build(calendar, year - 1, year + 1);
+        int end = index.rangeEnd(first + CELLS - 1);
+        for (int i = index.rangeStart(first); i < end; i++) {
+            int cell = (int) (index.epochDayAt(i) - first);
+            if (grid.events[cell] == NO_EVENT) {
+                grid.events[cell] = (byte) index.kindAt(i);
+            }
+        }
+        return grid;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    // Epoch day of cell 0
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    // Cell of the month's 1st
+    public int getFirstCell() {
+        return firstCell;
+    }
+
+    // Days in the month, 29 or 30
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isInMonth(int cell) {
+        return cell >= firstCell && cell < firstCell + length;
+    }
+
+    public long epochDayAt(int cell) {
+        return firstEpochDay + cell;
+    }
+
+    // Cell of an epoch day, or -1 if the grid does not show it
+    public int cellOf(long epochDay) {
+        long cell = epochDay - firstEpochDay;
+        return cell >= 0 && cell < CELLS ? (int) cell : -1;
+    }
+
+    // Hijri date of a cell, packed as in HijriCalendar.pack(), or 0
+    public int hijriAt(int cell) {
+        return hijri[cell];
+    }
+
+    // Gregorian date of a cell, packed the same way as Hijri dates
+    public int gregorianAt(int cell) {
+        return gregorian[cell];
+    }
+
+    // IslamicEvents kind on a cell's day, or NO_EVENT
+    public int eventAt(int cell) {
+        return events[cell];
+    }
+}
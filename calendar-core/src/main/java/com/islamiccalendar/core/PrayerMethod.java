@@ -0,0 +1,26 @@
+package com.islamiccalendar.core;
+
+// Standard prayer-time conventions: the sun's depression below the horizon
+// for Fajr, and for Isha either a depression or a fixed interval after Maghrib.
+public enum PrayerMethod {
+    // Muslim World League
+    MWL(18, 17, 0),
+    // Islamic Society of North America
+    ISNA(15, 15, 0),
+    // Umm al-Qura, Makkah: Isha 90 minutes after Maghrib
+    UMM_AL_QURA(18.5, 0, 90),
+    // Egyptian General Authority of Survey
+    EGYPTIAN(19.5, 17.5, 0),
+    // University of Islamic Sciences, Karachi
+    KARACHI(18, 18, 0);
+
+    final double fajrAngle;
+    final double ishaAngle;
+    final int ishaMinutes;
+
+    PrayerMethod(double fajrAngle, double ishaAngle, int ishaMinutes) {
+        this.fajrAngle = fajrAngle;
+        this.ishaAngle = ishaAngle;
+        this.ishaMinutes = ishaMinutes;
+    }
+}
@@ -0,0 +1,209 @@
+package com.islamiccalendar.core;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+// A year of prayer times for one location, method and Asr school, computed
+// in one pass into a flat int[] of local minutes after midnight with
+// PRAYERS entries per day. Times are not wrapped to the clock: an Isha
+// after midnight is 1440 or more, so a day's times always stay in order.
+// The sun's declination and the equation of time are worked out once per
+// day and shared by all six times, so lookups are array reads: no
+// trigonometry per query.
+public final class PrayerTimes {
+
+    // Entries for each day, in order
+    public static final int FAJR = 0;
+    public static final int SUNRISE = 1;
+    public static final int DHUHR = 2;
+    public static final int ASR = 3;
+    public static final int MAGHRIB = 4;
+    public static final int ISHA = 5;
+    public static final int PRAYERS = 6;
+
+    // Asr when a shadow is its object's length plus the noon shadow (Shafi,
+    // Maliki, Hanbali) or twice its length (Hanafi)
+    public static final int ASR_SHAFI = 1;
+    public static final int ASR_HANAFI = 2;
+
+    // The sun does not reach the time's depression that day (high latitudes)
+    public static final int NO_TIME = -1;
+
+    // Sunrise and sunset: refraction plus the solar radius
+    private static final double HORIZON = -0.833;
+
+    private static final String[] NAMES = {"Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha"};
+
+    private final int year;
+    private final double latitude;
+    private final double longitude;
+    private final ZoneId zone;
+    private final PrayerMethod method;
+    private final int asrFactor;
+    private final long firstDay;
+    private final int[] minutes;
+
+    private PrayerTimes(int year, double latitude, double longitude, ZoneId zone, PrayerMethod method,
+                        int asrFactor, long firstDay, int[] minutes) {
+        this.year = year;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.zone = zone;
+        this.method = method;
+        this.asrFactor = asrFactor;
+        this.firstDay = firstDay;
+        this.minutes = minutes;
+    }
+
+    // Every prayer time of a Gregorian year at (latitude, longitude east)
+    public static PrayerTimes computeYear(int year, double latitude, double longitude, ZoneId zone,
+                                          PrayerMethod method, int asrFactor) {
+        ZoneRules rules = zone.getRules();
+        long firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+        int days = LocalDate.of(year, 12, 31).getDayOfYear();
+        int[] minutes = new int[days * PRAYERS];
+
+        double sinLatitude = Math.sin(Math.toRadians(latitude));
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        double sinHorizon = Math.sin(Math.toRadians(HORIZON));
+        double sinFajr = Math.sin(Math.toRadians(-method.fajrAngle));
+        double sinIsha = Math.sin(Math.toRadians(-method.ishaAngle));
+
+        for (int day = 0; day < days; day++) {
+            long epochDay = firstDay + day;
+
+            // Sun at solar noon, shared by every time of the day
+            double t = (epochDay + 2440587.5 + 0.5 - longitude / 360 - 2451545.0) / 36525.0;
+            double meanLongitude = 280.46646 + t * (36000.76983 + t * 0.0003032);
+            double anomaly = Math.toRadians(357.52911 + t * (35999.05029 - 0.0001537 * t));
+            double eccentricity = 0.016708634 - t * (0.000042037 + 0.0000001267 * t);
+            double centre = Math.sin(anomaly) * (1.914602 - t * (0.004817 + 0.000014 * t))
+                    + Math.sin(2 * anomaly) * (0.019993 - 0.000101 * t)
+                    + Math.sin(3 * anomaly) * 0.000289;
+            double omega = Math.toRadians(125.04 - 1934.136 * t);
+            double apparentLongitude = Math.toRadians(meanLongitude + centre - 0.00569 - 0.00478 * Math.sin(omega));
+            double obliquity = Math.toRadians(23.439291 - 0.0130042 * t + 0.00256 * Math.cos(omega));
+            double sinDeclination = Math.sin(obliquity) * Math.sin(apparentLongitude);
+            double declination = Math.asin(sinDeclination);
+            double cosDeclination = Math.cos(declination);
+
+            double y = Math.tan(obliquity / 2);
+            y *= y;
+            double l0 = Math.toRadians(meanLongitude);
+            double equationOfTime = 4 * Math.toDegrees(y * Math.sin(2 * l0)
+                    - 2 * eccentricity * Math.sin(anomaly)
+                    + 4 * eccentricity * y * Math.sin(anomaly) * Math.cos(2 * l0)
+                    - 0.5 * y * y * Math.sin(4 * l0)
+                    - 1.25 * eccentricity * eccentricity * Math.sin(2 * anomaly));
+
+            double noon = 720 - 4 * longitude - equationOfTime;
+            double sinSinDeclination = sinLatitude * sinDeclination;
+            double cosCosDeclination = cosLatitude * cosDeclination;
+
+            // Asr altitude: where a shadow reaches asrFactor lengths past the noon shadow
+            double asrAltitude = Math.atan(1 / (asrFactor + Math.tan(Math.abs(Math.toRadians(latitude) - declination))));
+
+            double sunriseAngle = hourAngle(sinHorizon, sinSinDeclination, cosCosDeclination);
+            double maghrib = noon + sunriseAngle;
+            int base = day * PRAYERS;
+            minutes[base + FAJR] = local(noon - hourAngle(sinFajr, sinSinDeclination, cosCosDeclination),
+                    epochDay, rules);
+            minutes[base + SUNRISE] = local(noon - sunriseAngle, epochDay, rules);
+            minutes[base + DHUHR] = local(noon, epochDay, rules);
+            minutes[base + ASR] = local(noon
+                    + hourAngle(Math.sin(asrAltitude), sinSinDeclination, cosCosDeclination), epochDay, rules);
+            minutes[base + MAGHRIB] = local(maghrib, epochDay, rules);
+            minutes[base + ISHA] = method.ishaMinutes > 0
+                    ? local(maghrib + method.ishaMinutes, epochDay, rules)
+                    : local(noon + hourAngle(sinIsha, sinSinDeclination, cosCosDeclination), epochDay, rules);
+        }
+        return new PrayerTimes(year, latitude, longitude, zone, method, asrFactor, firstDay, minutes);
+    }
+
+    // Minutes from solar noon until the sun reaches the altitude whose sine
+    // is given, or NaN if it never does that day
+    private static double hourAngle(double sinAltitude, double sinSinDeclination, double cosCosDeclination) {
+        double cos = (sinAltitude - sinSinDeclination) / cosCosDeclination;
+        if (cos < -1 || cos > 1) {
+            return Double.NaN;
+        }
+        return 4 * Math.toDegrees(Math.acos(cos));
+    }
+
+    // Local minutes from the date's midnight, with the zone offset in force
+    // at that instant, so times either side of a DST change each get their own
+    private static int local(double utcMinutes, long epochDay, ZoneRules rules) {
+        if (Double.isNaN(utcMinutes)) {
+            return NO_TIME;
+        }
+        long utc = Math.round(utcMinutes);
+        int offset = rules.getOffset(Instant.ofEpochSecond(epochDay * 86400 + utc * 60)).getTotalSeconds() / 60;
+        return (int) utc + offset;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    // Local minutes after midnight of one time on a date in this year, or
+    // NO_TIME; 1440 or more for a time after the next midnight
+    public int getTime(LocalDate date, int prayer) {
+        return minutes[(date.getDayOfYear() - 1) * PRAYERS + prayer];
+    }
+
+    // Copy a date's PRAYERS times into out, starting at FAJR
+    public void getDay(LocalDate date, int[] out) {
+        System.arraycopy(minutes, (date.getDayOfYear() - 1) * PRAYERS, out, 0, PRAYERS);
+    }
+
+    // Position of the first prayer after minuteOfDay on date, as
+    // (dayOfYear - 1) * PRAYERS + prayer, so it may fall on the day before
+    // (its Isha after midnight) or the next day; epochDayAt() and prayerAt()
+    // split it. Sunrise is not a prayer and is skipped. Returns -1 when none
+    // of the days has one, or when the next prayer falls in the following
+    // year: after the last Isha of 31 December, ask the next year's times
+    // for 1 January with minuteOfDay - 1440.
+    public int nextPrayer(LocalDate date, int minuteOfDay) {
+        int start = (date.getDayOfYear() - 1) * PRAYERS;
+        int end = Math.min(start + 2 * PRAYERS, minutes.length);
+        for (int i = Math.max(start - PRAYERS, 0); i < end; i++) {
+            int time = minutes[i];
+            if (i % PRAYERS == SUNRISE || time == NO_TIME) {
+                continue;
+            }
+            // Minutes from midnight of date, whichever day the entry is of
+            int fromMidnight = time + (i / PRAYERS - start / PRAYERS) * 1440;
+            if (fromMidnight > minuteOfDay) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Local minutes after midnight of epochDayAt(position), from nextPrayer()
+    public int timeAt(int position) {
+        return minutes[position];
+    }
+
+    // Epoch day of a position from nextPrayer()
+    public long epochDayAt(int position) {
+        return firstDay + position / PRAYERS;
+    }
+
+    public static int prayerAt(int position) {
+        return position % PRAYERS;
+    }
+
+    public static String name(int prayer) {
+        return NAMES[prayer];
+    }
+
+    // True if these are the times for the given date, place and convention
+    public boolean matches(LocalDate date, double latitude, double longitude, ZoneId zone,
+                           PrayerMethod method, int asrFactor) {
+        return date.getYear() == year && this.latitude == latitude && this.longitude == longitude
+                && this.zone.equals(zone) && this.method == method && this.asrFactor == asrFactor;
+    }
+}
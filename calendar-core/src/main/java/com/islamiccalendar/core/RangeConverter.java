@@ -0,0 +1,186 @@
+package com.islamiccalendar.core;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.StreamSupport;
+
+// Converts many epoch days at once into caller-supplied int[] arrays of
+// packed Hijri dates. A contiguous range is walked day by day, asking the
+// calendar only at month boundaries. A batch in any order goes through a
+// Cursor that remembers the month it last resolved, so neighbouring days
+// cost a subtraction and only a jump to another month costs a conversion.
+public final class RangeConverter {
+
+    // Smallest run a parallel split is cut down to; below this the forks
+    // cost more than the conversions they share out
+    static final int MIN_SPLIT = 4096;
+
+    private static final IntConsumer IGNORE = hijri -> { };
+
+    private final HijriCalendar calendar;
+    private final long firstDay;
+    private final long lastDay;
+
+    public RangeConverter(HijriCalendar calendar) {
+        this.calendar = calendar;
+        this.firstDay = calendar.toEpochDay(calendar.getMinYear(), 1, 1);
+        int maxYear = calendar.getMaxYear();
+        this.lastDay = calendar.toEpochDay(maxYear, 12, 1) + calendar.lengthOfMonth(maxYear, 12) - 1;
+    }
+
+    // First and last epoch days the calendar converts
+    public long getFirstDay() {
+        return firstDay;
+    }
+
+    public long getLastDay() {
+        return lastDay;
+    }
+
+    // out[offset + i] = the Hijri date of epoch day first + i, for i < count
+    public void convertRange(long first, int count, int[] out, int offset) {
+        if (count <= 0) {
+            return;
+        }
+        checkSupported(first);
+        checkSupported(first + count - 1);
+
+        int hijri = calendar.toHijri(first);
+        int year = HijriCalendar.year(hijri);
+        int month = HijriCalendar.month(hijri);
+        int day = HijriCalendar.day(hijri);
+        int length = calendar.lengthOfMonth(year, month);
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            out[i] = HijriCalendar.pack(year, month, day);
+            if (++day > length && i + 1 < end) {
+                day = 1;
+                if (++month > 12) {
+                    month = 1;
+                    year++;
+                }
+                length = calendar.lengthOfMonth(year, month);
+            }
+        }
+    }
+
+    // out[i] = the Hijri date of epochDays[i], for the days in any order
+    public void convertBatch(long[] epochDays, int[] out) {
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < epochDays.length; i++) {
+            out[i] = cursor.convertOrThrow(epochDays[i]);
+        }
+    }
+
+    // The same as convertBatch(), with the array split across the common
+    // fork-join pool. Each split has its own cursor, so the batch needs no
+    // locking and gains most when nearby days sit near each other.
+    public void convertParallel(long[] epochDays, int[] out) {
+        StreamSupport.intStream(spliterator(epochDays, out), true).forEach(IGNORE);
+    }
+
+    // Yields the Hijri date of each epoch day in array order and stores it
+    // in out at the same index as it goes. For streaming over a batch, e.g.
+    // StreamSupport.intStream(spliterator(days, out), true).
+    public Spliterator.OfInt spliterator(long[] epochDays, int[] out) {
+        if (out.length < epochDays.length) {
+            throw new IllegalArgumentException("Output holds " + out.length + " of " + epochDays.length + " days");
+        }
+        return new BatchSpliterator(epochDays, out, 0, epochDays.length);
+    }
+
+    private void checkSupported(long epochDay) {
+        if (epochDay < firstDay || epochDay > lastDay) {
+            throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
+        }
+    }
+
+    // Remembers the last month it resolved. Not thread-safe: one per thread.
+    final class Cursor {
+        private long monthStart = 1;
+        private int monthLength;
+        private int yearMonth;
+
+        // Packed Hijri date of the epoch day, or -1 if the calendar does not reach it
+        int convert(long epochDay) {
+            long offset = epochDay - monthStart;
+            if (offset >= 0 && offset < monthLength) {
+                return yearMonth | (int) (offset + 1);
+            }
+            if (epochDay < firstDay || epochDay > lastDay) {
+                return -1;
+            }
+            int hijri = calendar.toHijri(epochDay);
+            int day = HijriCalendar.day(hijri);
+            monthStart = epochDay - day + 1;
+            monthLength = calendar.lengthOfMonth(HijriCalendar.year(hijri), HijriCalendar.month(hijri));
+            yearMonth = hijri - day;
+            return hijri;
+        }
+
+        int convertOrThrow(long epochDay) {
+            int hijri = convert(epochDay);
+            if (hijri < 0) {
+                throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
+            }
+            return hijri;
+        }
+    }
+
+    private final class BatchSpliterator implements Spliterator.OfInt {
+        private final long[] epochDays;
+        private final int[] out;
+        private final Cursor cursor = new Cursor();
+        private int index;
+        private final int end;
+
+        BatchSpliterator(long[] epochDays, int[] out, int index, int end) {
+            this.epochDays = epochDays;
+            this.out = out;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            int hijri = cursor.convertOrThrow(epochDays[index]);
+            out[index++] = hijri;
+            action.accept(hijri);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (; index < end; index++) {
+                int hijri = cursor.convertOrThrow(epochDays[index]);
+                out[index] = hijri;
+                action.accept(hijri);
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int remaining = end - index;
+            if (remaining < 2 * MIN_SPLIT) {
+                return null;
+            }
+            int mid = index + remaining / 2;
+            BatchSpliterator prefix = new BatchSpliterator(epochDays, out, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
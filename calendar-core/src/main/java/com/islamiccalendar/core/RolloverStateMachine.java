@@ -0,0 +1,57 @@
+package com.islamiccalendar.core;
+
+// What the date does at sunset, as one pure function of the calendar, the
+// epoch day the date is on and the epoch day the clock is on. A table gives
+// how many days may be taken from each day of the month:
+//   days 1-28  run up to the 29th,
+//   day 29     holds; the user reports whether the moon was seen,
+//   day 30     takes one day, into the next month.
+// Months are consecutive epoch days, so any gap is closed in at most three
+// table lookups (30th -> 1st -> 29th), and the result is the same whether
+// the sunsets are applied one by one or all at once.
+public final class RolloverStateMachine {
+
+    // Nothing to apply: no sunset has passed since the date was last moved
+    public static final int EFFECT_NONE = 0;
+    // The date moved and no decision is pending
+    public static final int EFFECT_ADVANCED = 1;
+    // The date is on a 29th with sunsets still to apply: ask the user
+    public static final int EFFECT_HELD = 2;
+
+    // Days that may be taken from each day of the month (index = day)
+    private static final int[] STEPS = new int[31];
+
+    static {
+        for (int day = 1; day <= 28; day++) {
+            STEPS[day] = 29 - day;
+        }
+        STEPS[29] = 0;
+        STEPS[30] = 1;
+    }
+
+    private RolloverStateMachine() {
+    }
+
+    // Epoch day the date reaches from epochDay when the clock is on target
+    public static long advance(HijriCalendar calendar, long epochDay, long target) {
+        while (epochDay < target) {
+            int steps = STEPS[HijriCalendar.day(calendar.toHijri(epochDay))];
+            if (steps == 0) {
+                break;
+            }
+            epochDay += Math.min(steps, target - epochDay);
+        }
+        return epochDay;
+    }
+
+    // Effect of moving from epochDay to advanced (the result of advance()) with the clock on target
+    public static int effect(HijriCalendar calendar, long epochDay, long advanced, long target) {
+        if (epochDay >= target) {
+            return EFFECT_NONE;
+        }
+        if (advanced < target && STEPS[HijriCalendar.day(calendar.toHijri(advanced))] == 0) {
+            return EFFECT_HELD;
+        }
+        return EFFECT_ADVANCED;
+    }
+}
@@ -0,0 +1,121 @@
+package com.islamiccalendar.core;
+
+import java.util.Arrays;
+
+// Per-month day shifts recorded from moon sightings.
+// A delta at month i moves the start of month i and every later month, so the
+// total shift of a month is a prefix sum. Deltas are kept sparsely (sorted
+// month/delta pairs) for storage and mirrored in a Fenwick tree so a prefix
+// sum costs O(log n) however many corrections have been made.
+public final class SightingAdjustments {
+
+    private final int size;
+    private final int[] tree;
+
+    private int[] months = new int[8];
+    private int[] deltas = new int[8];
+    private int count;
+
+    public SightingAdjustments(int size) {
+        this.size = size;
+        this.tree = new int[size + 1];
+    }
+
+    // Add a shift in days to the given month and everything after it
+    public void add(int monthIndex, int delta) {
+        if (monthIndex < 0 || monthIndex >= size) {
+            throw new IllegalArgumentException("Month index out of range: " + monthIndex);
+        }
+        if (delta == 0) {
+            return;
+        }
+        for (int i = monthIndex + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+
+        int position = Arrays.binarySearch(months, 0, count, monthIndex);
+        if (position >= 0) {
+            deltas[position] += delta;
+            if (deltas[position] == 0) {
+                System.arraycopy(months, position + 1, months, position, count - position - 1);
+                System.arraycopy(deltas, position + 1, deltas, position, count - position - 1);
+                count--;
+            }
+            return;
+        }
+        position = -position - 1;
+        if (count == months.length) {
+            months = Arrays.copyOf(months, count * 2);
+            deltas = Arrays.copyOf(deltas, count * 2);
+        }
+        System.arraycopy(months, position, months, position + 1, count - position);
+        System.arraycopy(deltas, position, deltas, position + 1, count - position);
+        months[position] = monthIndex;
+        deltas[position] = delta;
+        count++;
+    }
+
+    // Total shift applied to the start of the given month
+    public int shiftAt(int monthIndex) {
+        int sum = 0;
+        for (int i = Math.min(monthIndex + 1, size); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Number of months carrying a correction
+    public int count() {
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Month index of the i-th correction, in month order (0 <= i < count())
+    public int monthAt(int i) {
+        return months[i];
+    }
+
+    // Delta of the i-th correction
+    public int deltaAt(int i) {
+        return deltas[i];
+    }
+
+    // Serialize as "month:delta,month:delta" in month order
+    public String encode() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(months[i]).append(':').append(deltas[i]);
+        }
+        return builder.toString();
+    }
+
+    // Rebuild from encode() output; malformed entries are skipped
+    public static SightingAdjustments decode(String encoded, int size) {
+        SightingAdjustments adjustments = new SightingAdjustments(size);
+        if (encoded == null || encoded.isEmpty()) {
+            return adjustments;
+        }
+        for (String entry : encoded.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                int month = Integer.parseInt(entry.substring(0, separator));
+                int delta = Integer.parseInt(entry.substring(separator + 1));
+                if (month >= 0 && month < size) {
+                    adjustments.add(month, delta);
+                }
+            } catch (NumberFormatException e) {
+                // Skip the entry
+            }
+        }
+        return adjustments;
+    }
+}
@@ -0,0 +1,154 @@
+package com.islamiccalendar.core;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+// Offline sunset times for a fixed location, using the NOAA solar position
+// equations. A whole year of local sunset times is computed at once into a
+// short[] of minutes after midnight, so each lookup is an array index.
+public final class SunsetCalculator {
+
+    // Marks a day without a sunset (polar day or night)
+    public static final short NO_SUNSET = -1;
+
+    // Sun's centre 50 arc minutes below the horizon: refraction plus the solar radius
+    private static final double SUNSET_ZENITH = 90.833;
+
+    private final double latitude;
+    private final double longitude;
+    private final ZoneId zone;
+
+    private int tableYear = Integer.MIN_VALUE;
+    private short[] table;
+
+    public SunsetCalculator(double latitude, double longitude, ZoneId zone) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.zone = zone;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // Local sunset on the given date in minutes after midnight, or NO_SUNSET
+    public synchronized int getSunsetMinutes(LocalDate date) {
+        if (date.getYear() != tableYear) {
+            table = computeYear(date.getYear(), latitude, longitude, zone);
+            tableYear = date.getYear();
+        }
+        return table[date.getDayOfYear() - 1];
+    }
+
+    // Local sunset minutes for every day of a year, indexed by day of year - 1
+    public static short[] computeYear(int year, double latitude, double longitude, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        long firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+        short[] minutes = new short[LocalDate.of(year, 12, 31).getDayOfYear()];
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = (short) computeSunset(firstDay + i, latitude, longitude, rules);
+        }
+        return minutes;
+    }
+
+    // Local sunset for one day in minutes after midnight, or NO_SUNSET. Far
+    // from the zone's meridian the sunset falling on a local date is that of
+    // the UTC day before or after it, so that day is solved instead of
+    // wrapping another day's sunset onto this one. A date the sunset skips
+    // (it moves from just before midnight to just after) keeps 23:59.
+    public static int computeSunset(long epochDay, double latitude, double longitude, ZoneRules rules) {
+        double utcMinutes = computeSunsetUtc(epochDay, latitude, longitude);
+        if (Double.isNaN(utcMinutes)) {
+            return NO_SUNSET;
+        }
+        int local = localMinutes(epochDay, utcMinutes, rules);
+        long otherDay = local >= 1440 ? epochDay - 1 : local < 0 ? epochDay + 1 : epochDay;
+        if (otherDay != epochDay) {
+            double otherUtc = computeSunsetUtc(otherDay, latitude, longitude);
+            if (Double.isNaN(otherUtc)) {
+                // The sun sets on this UTC day but not within the local date
+                return NO_SUNSET;
+            }
+            int other = localMinutes(otherDay, otherUtc, rules) + (int) (otherDay - epochDay) * 1440;
+            if (other >= 0 && other < 1440) {
+                return other;
+            }
+        }
+        return Math.max(0, Math.min(local, 1439));
+    }
+
+    // Local minutes from midnight of the given UTC day, with the offset in force then
+    private static int localMinutes(long utcDay, double utcMinutes, ZoneRules rules) {
+        long utcSeconds = utcDay * 86400 + Math.round(utcMinutes * 60);
+        int offsetSeconds = rules.getOffset(Instant.ofEpochSecond(utcSeconds)).getTotalSeconds();
+        return (int) Math.round(utcMinutes + offsetSeconds / 60.0);
+    }
+
+    // Sunset on the given UTC day in fractional minutes after UTC midnight
+    // (may fall outside 0-1440 far from Greenwich), or NaN without a sunset
+    public static double computeSunsetUtc(long epochDay, double latitude, double longitude) {
+        // Solve at local noon first, then once more at the estimated sunset
+        double utcMinutes = sunsetUtcMinutes(epochDay, 720 - 4 * longitude, latitude, longitude);
+        if (Double.isNaN(utcMinutes)) {
+            return Double.NaN;
+        }
+        return sunsetUtcMinutes(epochDay, utcMinutes, latitude, longitude);
+    }
+
+    // Sunset in UTC minutes from midnight, evaluating the sun's position at
+    // the given time of day; NaN when the sun does not set
+    private static double sunsetUtcMinutes(long epochDay, double atMinutes, double latitude, double longitude) {
+        double julianDay = epochDay + 2440587.5 + atMinutes / 1440.0;
+        double t = (julianDay - 2451545.0) / 36525.0;
+
+        double meanLongitude = normalizeDegrees(280.46646 + t * (36000.76983 + t * 0.0003032));
+        double meanAnomaly = 357.52911 + t * (35999.05029 - 0.0001537 * t);
+        double eccentricity = 0.016708634 - t * (0.000042037 + 0.0000001267 * t);
+        double anomalyRad = Math.toRadians(meanAnomaly);
+        double centre = Math.sin(anomalyRad) * (1.914602 - t * (0.004817 + 0.000014 * t))
+                + Math.sin(2 * anomalyRad) * (0.019993 - 0.000101 * t)
+                + Math.sin(3 * anomalyRad) * 0.000289;
+        double trueLongitude = meanLongitude + centre;
+        double omega = 125.04 - 1934.136 * t;
+        double apparentLongitude = trueLongitude - 0.00569 - 0.00478 * Math.sin(Math.toRadians(omega));
+
+        double meanObliquity = 23 + (26 + (21.448 - t * (46.815 + t * (0.00059 - t * 0.001813))) / 60) / 60;
+        double obliquity = meanObliquity + 0.00256 * Math.cos(Math.toRadians(omega));
+        double declination = Math.asin(Math.sin(Math.toRadians(obliquity))
+                * Math.sin(Math.toRadians(apparentLongitude)));
+
+        double y = Math.tan(Math.toRadians(obliquity / 2));
+        y *= y;
+        double longitudeRad = Math.toRadians(meanLongitude);
+        double equationOfTime = 4 * Math.toDegrees(y * Math.sin(2 * longitudeRad)
+                - 2 * eccentricity * Math.sin(anomalyRad)
+                + 4 * eccentricity * y * Math.sin(anomalyRad) * Math.cos(2 * longitudeRad)
+                - 0.5 * y * y * Math.sin(4 * longitudeRad)
+                - 1.25 * eccentricity * eccentricity * Math.sin(2 * anomalyRad));
+
+        double latitudeRad = Math.toRadians(latitude);
+        double cosHourAngle = Math.cos(Math.toRadians(SUNSET_ZENITH))
+                / (Math.cos(latitudeRad) * Math.cos(declination))
+                - Math.tan(latitudeRad) * Math.tan(declination);
+        if (cosHourAngle < -1 || cosHourAngle > 1) {
+            return Double.NaN;
+        }
+        double hourAngle = Math.toDegrees(Math.acos(cosHourAngle));
+        return 720 - 4 * longitude - equationOfTime + 4 * hourAngle;
+    }
+
+    private static double normalizeDegrees(double degrees) {
+        double normalized = degrees % 360;
+        return normalized < 0 ? normalized + 360 : normalized;
+    }
+}
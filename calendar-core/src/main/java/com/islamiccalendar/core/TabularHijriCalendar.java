@@ -0,0 +1,97 @@
+package com.islamiccalendar.core;
+
+// Arithmetic (tabular) Hijri calendar: 30-year cycle with 11 leap years,
+// civil (Friday) epoch. Month starts for the supported years are precomputed
+// into one int[] so both conversion directions are a table lookup.
+public final class TabularHijriCalendar extends HijriCalendar {
+
+    public static final int MIN_YEAR = 1300;
+    public static final int MAX_YEAR = 1600;
+
+    // Epoch day of the day before 1 Muharram 1 AH: 15 July 622 Julian, as 1 Muharram is the 16th
+    private static final int EPOCH_OFFSET = -492149;
+
+    private static TabularHijriCalendar instance;
+
+    // monthStarts[i] is the epoch day of month i counted from Muharram MIN_YEAR;
+    // the extra last entry marks the day after the final supported month
+    private final int[] monthStarts;
+
+    private TabularHijriCalendar() {
+        int months = (MAX_YEAR - MIN_YEAR + 1) * 12;
+        monthStarts = new int[months + 1];
+        for (int i = 0; i <= months; i++) {
+            monthStarts[i] = arithmeticEpochDay(MIN_YEAR + i / 12, i % 12 + 1, 1);
+        }
+    }
+
+    // Shared instance; the table is built once per process
+    public static synchronized TabularHijriCalendar getInstance() {
+        if (instance == null) {
+            instance = new TabularHijriCalendar();
+        }
+        return instance;
+    }
+
+    @Override
+    public int toHijri(long epochDay) {
+        if (epochDay < monthStarts[0] || epochDay >= monthStarts[monthStarts.length - 1]) {
+            throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
+        }
+        int index = monthIndex((int) epochDay);
+        int day = (int) epochDay - monthStarts[index] + 1;
+        return pack(MIN_YEAR + index / 12, index % 12 + 1, day);
+    }
+
+    @Override
+    public long toEpochDay(int year, int month, int day) {
+        return monthStarts[indexOf(year, month)] + day - 1;
+    }
+
+    @Override
+    public int lengthOfMonth(int year, int month) {
+        int index = indexOf(year, month);
+        return monthStarts[index + 1] - monthStarts[index];
+    }
+
+    @Override
+    public int getMinYear() {
+        return MIN_YEAR;
+    }
+
+    @Override
+    public int getMaxYear() {
+        return MAX_YEAR;
+    }
+
+    // Estimate the month from the mean month length, then correct by at most a step
+    private int monthIndex(int epochDay) {
+        int index = (int) ((epochDay - monthStarts[0]) / MEAN_MONTH_DAYS);
+        int last = monthStarts.length - 2;
+        if (index > last) {
+            index = last;
+        }
+        while (monthStarts[index] > epochDay) {
+            index--;
+        }
+        while (monthStarts[index + 1] <= epochDay) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int indexOf(int year, int month) {
+        if (year < MIN_YEAR || year > MAX_YEAR || month < 1 || month > 12) {
+            throw new IllegalArgumentException("Hijri date out of supported range: " + month + "/" + year);
+        }
+        return (year - MIN_YEAR) * 12 + month - 1;
+    }
+
+    private static int arithmeticEpochDay(int year, int month, int day) {
+        return day
+                + (59 * (month - 1) + 1) / 2
+                + (year - 1) * 354
+                + (3 + 11 * year) / 30
+                + EPOCH_OFFSET;
+    }
+}
@@ -0,0 +1,95 @@
+package com.islamiccalendar.core;
+
+import java.util.Locale;
+
+// Parsing and formatting of clock times held as minutes after midnight (0-1439).
+// Parsers return -1 for input they do not accept.
+public final class TimeOfDay {
+
+    public static final int INVALID = -1;
+
+    private TimeOfDay() {
+    }
+
+    // Parse 24-hour "H:mm" or "HH:mm"
+    public static int parse24Hour(CharSequence text) {
+        int length = text.length();
+        int colon = indexOf(text, ':');
+        if (colon < 1 || colon > 2 || length != colon + 3) {
+            return INVALID;
+        }
+        int hour = parseDigits(text, 0, colon);
+        int minute = parseDigits(text, colon + 1, length);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return INVALID;
+        }
+        return hour * 60 + minute;
+    }
+
+    // Parse 12-hour "h:mm AM" or "h:mm PM", case-insensitive, space before the period optional
+    public static int parse12Hour(CharSequence text) {
+        int end = text.length();
+        if (end < 6) {
+            return INVALID;
+        }
+        char first = Character.toUpperCase(text.charAt(end - 2));
+        char second = Character.toUpperCase(text.charAt(end - 1));
+        if ((first != 'A' && first != 'P') || second != 'M') {
+            return INVALID;
+        }
+        int timeEnd = end - 2;
+        while (timeEnd > 0 && text.charAt(timeEnd - 1) == ' ') {
+            timeEnd--;
+        }
+
+        int minutes = parse24Hour(text.subSequence(0, timeEnd));
+        int hour = minutes / 60;
+        if (minutes == INVALID || hour < 1 || hour > 12) {
+            return INVALID;
+        }
+        hour %= 12;
+        if (first == 'P') {
+            hour += 12;
+        }
+        return hour * 60 + minutes % 60;
+    }
+
+    // Parse either format, 12-hour when an AM/PM suffix is present
+    public static int parse(CharSequence text) {
+        int minutes = parse12Hour(text);
+        return minutes != INVALID ? minutes : parse24Hour(text);
+    }
+
+    // Format as 24-hour "HH:mm"
+    public static String format24Hour(int minutes) {
+        return String.format(Locale.US, "%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    // Format as 12-hour "h:mm AM/PM"
+    public static String format12Hour(int minutes) {
+        int hour = minutes / 60 % 12;
+        return String.format(Locale.US, "%d:%02d %s",
+                hour == 0 ? 12 : hour, minutes % 60, minutes < 720 ? "AM" : "PM");
+    }
+
+    private static int indexOf(CharSequence text, char c) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseDigits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,122 @@
+package com.islamiccalendar.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Umm al-Qura calendar read straight from a bit-packed month-length dataset.
+//
+// Layout (big-endian):
+//   int   magic ('UAQ1')
+//   short first year, short last year
+//   int   epoch day of 1 Muharram of the first year
+//   short per year, bit (month - 1) set when that month has 30 days
+//
+// The buffer is kept as-is (normally a mapped asset); the only heap data is a
+// prefix sum of year starts so a lookup touches a couple of ints and one short.
+public final class UmmAlQuraCalendar extends HijriCalendar {
+
+    public static final int MAGIC = 0x55415131;
+    static final int HEADER_SIZE = 12;
+
+    private static final double MEAN_YEAR_DAYS = MEAN_MONTH_DAYS * 12;
+
+    private final ByteBuffer monthBits;
+    private final int minYear;
+    private final int maxYear;
+
+    // yearStarts[i] is the epoch day of 1 Muharram (minYear + i); the extra
+    // last entry marks the day after the final supported year
+    private final int[] yearStarts;
+
+    public UmmAlQuraCalendar(ByteBuffer data) {
+        ByteBuffer buffer = data.slice().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an Umm al-Qura dataset");
+        }
+        minYear = buffer.getShort(4);
+        maxYear = buffer.getShort(6);
+        int years = maxYear - minYear + 1;
+        if (years <= 0 || buffer.remaining() < HEADER_SIZE + years * 2) {
+            throw new IllegalArgumentException("Truncated Umm al-Qura dataset");
+        }
+        monthBits = buffer;
+
+        yearStarts = new int[years + 1];
+        yearStarts[0] = buffer.getInt(8);
+        for (int i = 0; i < years; i++) {
+            yearStarts[i + 1] = yearStarts[i] + 348 + Integer.bitCount(bitsAt(i));
+        }
+    }
+
+    @Override
+    public int toHijri(long epochDay) {
+        if (epochDay < yearStarts[0] || epochDay >= yearStarts[yearStarts.length - 1]) {
+            throw new IllegalArgumentException("Epoch day out of supported range: " + epochDay);
+        }
+        int yearIndex = yearIndex((int) epochDay);
+        int bits = bitsAt(yearIndex);
+        int dayOfYear = (int) epochDay - yearStarts[yearIndex];
+
+        // Month estimate from 29.5 days per month, corrected by at most a step
+        int month = Math.min(dayOfYear * 2 / 59, 11);
+        while (month > 0 && monthOffset(bits, month) > dayOfYear) {
+            month--;
+        }
+        while (month < 11 && monthOffset(bits, month + 1) <= dayOfYear) {
+            month++;
+        }
+        return pack(minYear + yearIndex, month + 1, dayOfYear - monthOffset(bits, month) + 1);
+    }
+
+    @Override
+    public long toEpochDay(int year, int month, int day) {
+        int yearIndex = indexOf(year, month);
+        return yearStarts[yearIndex] + monthOffset(bitsAt(yearIndex), month - 1) + day - 1;
+    }
+
+    @Override
+    public int lengthOfMonth(int year, int month) {
+        return 29 + ((bitsAt(indexOf(year, month)) >>> (month - 1)) & 1);
+    }
+
+    @Override
+    public int getMinYear() {
+        return minYear;
+    }
+
+    @Override
+    public int getMaxYear() {
+        return maxYear;
+    }
+
+    private int bitsAt(int yearIndex) {
+        return monthBits.getShort(HEADER_SIZE + yearIndex * 2) & 0xFFF;
+    }
+
+    // Days from 1 Muharram to the first day of the zero-based month
+    private static int monthOffset(int bits, int month) {
+        return month * 29 + Integer.bitCount(bits & ((1 << month) - 1));
+    }
+
+    private int yearIndex(int epochDay) {
+        int index = (int) ((epochDay - yearStarts[0]) / MEAN_YEAR_DAYS);
+        int last = yearStarts.length - 2;
+        if (index > last) {
+            index = last;
+        }
+        while (yearStarts[index] > epochDay) {
+            index--;
+        }
+        while (yearStarts[index + 1] <= epochDay) {
+            index++;
+        }
+        return index;
+    }
+
+    private int indexOf(int year, int month) {
+        if (year < minYear || year > maxYear || month < 1 || month > 12) {
+            throw new IllegalArgumentException("Hijri date out of supported range: " + month + "/" + year);
+        }
+        return year - minYear;
+    }
+}
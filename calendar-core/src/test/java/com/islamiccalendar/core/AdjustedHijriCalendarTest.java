@@ -0,0 +1,120 @@
+package com.islamiccalendar.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AdjustedHijriCalendarTest {
+
+    private final HijriCalendar base = TabularHijriCalendar.getInstance();
+    private AdjustedHijriCalendar calendar;
+
+    @Before
+    public void setUp() {
+        calendar = new AdjustedHijriCalendar(base,
+                new SightingAdjustments(AdjustedHijriCalendar.monthCount(base)));
+    }
+
+    @Test
+    public void correction_leavesEarlierDatesAlone() {
+        long pastDay = base.toEpochDay(1446, 8, 10);
+        int pastDate = calendar.toHijri(pastDay);
+
+        // Ramadan sighted a day late: the day the table calls 1 Ramadan is 30 Sha'ban
+        long sightingDay = base.toEpochDay(1446, 9, 1);
+        calendar.correct(sightingDay, 1446, 8, 30);
+
+        assertEquals(pastDate, calendar.toHijri(pastDay));
+        assertEquals(HijriCalendar.pack(1446, 8, 30), calendar.toHijri(sightingDay));
+        assertEquals(HijriCalendar.pack(1446, 9, 1), calendar.toHijri(sightingDay + 1));
+        assertEquals(30, calendar.lengthOfMonth(1446, 8));
+    }
+
+    @Test
+    public void laterCorrection_keepsEarlierCorrection() {
+        long shabanEnd = base.toEpochDay(1446, 9, 1);
+        calendar.correct(shabanEnd, 1446, 8, 30);
+        long hijjahStart = calendar.toEpochDay(1446, 12, 1);
+        calendar.correct(hijjahStart - 1, 1446, 12, 1);
+
+        assertEquals(HijriCalendar.pack(1446, 8, 30), calendar.toHijri(shabanEnd));
+        assertEquals(HijriCalendar.pack(1446, 12, 1), calendar.toHijri(hijjahStart - 1));
+        assertEquals(2, calendar.getAdjustments().count());
+    }
+
+    @Test
+    public void correction_rejectsShiftsOfMoreThanADay() {
+        long today = base.toEpochDay(1447, 7, 15);
+        try {
+            calendar.correct(today, 1446, 7, 15);
+            fail("A year's shift was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertEquals(0, calendar.getAdjustments().count());
+        assertEquals(HijriCalendar.pack(1447, 7, 15), calendar.toHijri(today));
+        assertEquals(HijriCalendar.pack(1447, 6, 15), calendar.toHijri(today - 29));
+    }
+
+    @Test
+    public void correction_rejectsMonthsOutside29To30Days() {
+        // Rajab 1447 already has 30 days; starting Sha'ban a day late would make it 31
+        assertEquals(30, calendar.lengthOfMonth(1447, 7));
+        long shabanStart = base.toEpochDay(1447, 8, 1);
+        try {
+            calendar.correct(shabanStart + 1, 1447, 8, 1);
+            fail("A 31-day month was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            calendar.correct(shabanStart, 1447, 7, 31);
+            fail("Day 31 was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertEquals(0, calendar.getAdjustments().count());
+        assertEquals(30, calendar.lengthOfMonth(1447, 7));
+        // A day early is fine: Rajab becomes 29 days
+        calendar.correct(shabanStart - 1, 1447, 8, 1);
+        assertEquals(29, calendar.lengthOfMonth(1447, 7));
+    }
+
+    @Test
+    public void shifts_matchNaivePrefixSums() {
+        int size = AdjustedHijriCalendar.monthCount(base);
+        SightingAdjustments adjustments = new SightingAdjustments(size);
+        int[] naive = new int[size];
+        Random random = new Random(7);
+
+        for (int i = 0; i < 500; i++) {
+            int month = random.nextInt(size);
+            int delta = random.nextBoolean() ? 1 : -1;
+            adjustments.add(month, delta);
+            naive[month] += delta;
+        }
+
+        int sum = 0;
+        for (int month = 0; month < size; month++) {
+            sum += naive[month];
+            assertEquals(sum, adjustments.shiftAt(month));
+        }
+    }
+
+    @Test
+    public void encode_roundTrips() {
+        SightingAdjustments adjustments = new SightingAdjustments(100);
+        adjustments.add(40, 1);
+        adjustments.add(3, -1);
+        adjustments.add(40, -1);
+        adjustments.add(12, 2);
+
+        assertEquals("3:-1,12:2", adjustments.encode());
+        SightingAdjustments decoded = SightingAdjustments.decode(adjustments.encode(), 100);
+        for (int month = 0; month < 100; month++) {
+            assertEquals(adjustments.shiftAt(month), decoded.shiftAt(month));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class CrescentVisibilityTest {
+
+    private static final double MECCA_LATITUDE = 21.4225;
+    private static final double MECCA_LONGITUDE = 39.8262;
+
+    @Test
+    public void newMoon_matchesThePublishedConjunction() {
+        // New moon of 29 March 2025 at 10:58 UT
+        double published = julianDay(LocalDateTime.of(2025, 3, 29, 10, 58));
+        double computed = LunarEphemeris.previousNewMoon(julianDay(LocalDateTime.of(2025, 3, 30, 0, 0)));
+        assertEquals(published, computed, 5.0 / 1440);
+    }
+
+    @Test
+    public void evaluate_hoursOldMoonIsNotVisible() {
+        CrescentVisibility visibility = CrescentVisibility.evaluate(
+                LocalDate.of(2025, 3, 29).toEpochDay(), MECCA_LATITUDE, MECCA_LONGITUDE);
+
+        assertTrue(visibility.getMoonAgeHours() > 0 && visibility.getMoonAgeHours() < 8);
+        assertEquals(CrescentVisibility.YALLOP_F, visibility.getYallopClass());
+        assertEquals(CrescentVisibility.ODEH_NOT_VISIBLE, visibility.getOdehZone());
+        assertFalse(visibility.isLikelyVisible());
+    }
+
+    @Test
+    public void evaluate_dayOldMoonIsEasilyVisible() {
+        CrescentVisibility visibility = CrescentVisibility.evaluate(
+                LocalDate.of(2025, 3, 30).toEpochDay(), MECCA_LATITUDE, MECCA_LONGITUDE);
+
+        assertTrue(visibility.getLagMinutes() > 60);
+        assertEquals(CrescentVisibility.YALLOP_A, visibility.getYallopClass());
+        assertEquals(CrescentVisibility.ODEH_NAKED_EYE, visibility.getOdehZone());
+    }
+
+    @Test
+    public void evaluate_moonSetBeforeTheSunIsNotVisible() {
+        // Evening before the conjunction of 8 April 2024
+        CrescentVisibility visibility = CrescentVisibility.evaluate(
+                LocalDate.of(2024, 4, 8).toEpochDay(), MECCA_LATITUDE, MECCA_LONGITUDE);
+
+        assertTrue(visibility.getMoonAgeHours() < 0);
+        assertEquals(0, visibility.getLagMinutes(), 0);
+        assertEquals(CrescentVisibility.YALLOP_F, visibility.getYallopClass());
+    }
+
+    @Test
+    public void classes_followTheirThresholds() {
+        assertEquals(CrescentVisibility.YALLOP_A, CrescentVisibility.yallopClass(0.3));
+        assertEquals(CrescentVisibility.YALLOP_B, CrescentVisibility.yallopClass(0));
+        assertEquals(CrescentVisibility.YALLOP_C, CrescentVisibility.yallopClass(-0.1));
+        assertEquals(CrescentVisibility.YALLOP_D, CrescentVisibility.yallopClass(-0.2));
+        assertEquals(CrescentVisibility.YALLOP_E, CrescentVisibility.yallopClass(-0.25));
+        assertEquals(CrescentVisibility.YALLOP_F, CrescentVisibility.yallopClass(-0.3));
+        assertEquals(CrescentVisibility.ODEH_NAKED_EYE, CrescentVisibility.odehZone(5.65));
+        assertEquals(CrescentVisibility.ODEH_OPTICAL_AID_MAYBE_NAKED_EYE, CrescentVisibility.odehZone(2));
+        assertEquals(CrescentVisibility.ODEH_OPTICAL_AID_ONLY, CrescentVisibility.odehZone(-0.96));
+        assertEquals(CrescentVisibility.ODEH_NOT_VISIBLE, CrescentVisibility.odehZone(-1));
+    }
+
+    @Test
+    public void forecast_coversEveryMonthEndOfTheYear() {
+        HijriCalendar calendar = TabularHijriCalendar.getInstance();
+        CrescentForecast forecast = CrescentForecast.forYear(calendar, 1446, MECCA_LATITUDE, MECCA_LONGITUDE);
+
+        for (int month = 1; month <= 12; month++) {
+            assertEquals(calendar.toEpochDay(1446, month, 29), forecast.getEvening(month));
+            int suggested = forecast.suggestedDate(month);
+            if (forecast.isLikelyVisible(month)) {
+                assertEquals(1, HijriCalendar.day(suggested));
+            } else {
+                assertEquals(HijriCalendar.pack(1446, month, 30), suggested);
+            }
+        }
+        assertTrue(forecast.matches(1446, MECCA_LATITUDE, MECCA_LONGITUDE));
+        assertFalse(forecast.matches(1447, MECCA_LATITUDE, MECCA_LONGITUDE));
+    }
+
+    private static double julianDay(LocalDateTime utc) {
+        long seconds = utc.toEpochSecond(ZoneOffset.UTC);
+        return LunarEphemeris.JD_UNIX_EPOCH + seconds / 86400.0;
+    }
+}
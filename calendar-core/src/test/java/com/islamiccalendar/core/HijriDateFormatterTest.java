@@ -0,0 +1,37 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HijriDateFormatterTest {
+
+    @Test
+    public void cachedStrings_matchPlainFormatting() {
+        for (int month = 1; month <= 12; month++) {
+            for (int day = 1; day <= 30; day++) {
+                int date = HijriCalendar.pack(1447, month, day);
+                String expected = HijriMonths.englishName(month) + " " + day + " 1447 A.H";
+
+                char[] sink = new char[HijriDateFormatter.MAX_FULL_DATE_LENGTH];
+                assertEquals(expected, new String(sink, 0, HijriDateFormatter.writeFullDate(date, sink)));
+                assertEquals(expected, HijriDateFormatter.appendFullDate(date, new StringBuilder()).toString());
+                assertEquals(expected, HijriDateFormatter.fullDate(date));
+                assertEquals(HijriMonths.englishName(month) + " " + day, HijriDateFormatter.monthDay(month, day));
+            }
+        }
+        assertEquals("١٥", HijriDateFormatter.day(15, true));
+        assertEquals("١٤٤٧", HijriDateFormatter.year(1447, true));
+        assertEquals("1447 A.H", HijriDateFormatter.yearWithEra(1447));
+    }
+
+    @Test
+    public void repeatedCalls_returnSameInstance() {
+        assertSame(HijriDateFormatter.day(7, true), HijriDateFormatter.day(7, true));
+        assertSame(HijriDateFormatter.yearWithEra(1447), HijriDateFormatter.yearWithEra(1447));
+        assertSame(HijriDateFormatter.monthDay(9, 1), HijriDateFormatter.monthDay(9, 1));
+
+        int date = HijriCalendar.pack(1447, 9, 1);
+        assertSame(HijriDateFormatter.fullDate(date), HijriDateFormatter.fullDate(date));
+    }
+}
@@ -0,0 +1,88 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class IcsExporterTest {
+
+    private final HijriCalendar calendar = TabularHijriCalendar.getInstance();
+    private final IcsExporter exporter = new IcsExporter(calendar);
+
+    private byte[] export(long first, long last) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(first, last, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void export_writesADayEventPerDayPlusMonthStartsAndEvents() throws IOException {
+        long first = calendar.toEpochDay(1447, 9, 1);
+        String ics = new String(export(first, first + 29), StandardCharsets.US_ASCII);
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+        // 30 days, one month start, Ramadan and five odd nights
+        assertEquals(30 + 1 + 6, count(ics, "BEGIN:VEVENT"));
+        assertEquals(count(ics, "BEGIN:VEVENT"), count(ics, "END:VEVENT"));
+
+        String start = LocalDate.ofEpochDay(first).toString().replace("-", "");
+        String end = LocalDate.ofEpochDay(first + 1).toString().replace("-", "");
+        assertTrue(ics.contains("UID:" + start + "-day@hijri.islamiccalendar\r\n"
+                + "DTSTAMP:" + start + "T000000Z\r\n"
+                + "DTSTART;VALUE=DATE:" + start + "\r\n"
+                + "DTEND;VALUE=DATE:" + end + "\r\n"
+                + "SUMMARY:" + HijriDateFormatter.fullDate(HijriCalendar.pack(1447, 9, 1)) + "\r\n"));
+        assertTrue(ics.contains("SUMMARY:Ramadan\r\n"));
+        assertTrue(ics.contains("SUMMARY:Start of RAMADAN 1447\r\n"));
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line, line.length() <= 75);
+        }
+    }
+
+    @Test
+    public void export_isByteStable() throws IOException {
+        long first = LocalDate.of(2025, 1, 1).toEpochDay();
+        assertArrayEquals(export(first, first + 400), export(first, first + 400));
+    }
+
+    @Test
+    public void exportParallel_matchesTheSequentialExport() throws IOException {
+        // Twenty years, across many chunks and several windows of the pool
+        long first = LocalDate.of(2020, 1, 1).toEpochDay();
+        long last = first + 20 * 365;
+        byte[] sequential = export(first, last);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            exporter.exportParallel(first, last, Channels.newChannel(out), pool);
+            assertTrue(Arrays.equals(sequential, out.toByteArray()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void export_skipsDaysOutsideTheCalendar() throws IOException {
+        long beforeRange = calendar.toEpochDay(calendar.getMinYear(), 1, 1) - 10;
+        String ics = new String(export(beforeRange, beforeRange + 9), StandardCharsets.US_ASCII);
+        assertEquals(0, count(ics, "BEGIN:VEVENT"));
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,68 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IslamicEventsTest {
+
+    private final HijriCalendar calendar = TabularHijriCalendar.getInstance();
+    private final IslamicEvents events = IslamicEvents.build(calendar, 1446, 1448);
+
+    @Test
+    public void build_isSortedAndCoversEveryYear() {
+        assertEquals(1446, events.getFirstYear());
+        assertEquals(1448, events.getLastYear());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.epochDayAt(i - 1) < events.epochDayAt(i));
+        }
+        assertEquals(calendar.toEpochDay(1446, 1, 10), events.epochDayAt(0));
+        assertEquals(IslamicEvents.ASHURA, events.kindAt(0));
+        assertEquals(calendar.toEpochDay(1448, 12, 10), events.epochDayAt(events.size() - 1));
+    }
+
+    @Test
+    public void next_findsTheEventOnOrAfterADay() {
+        long ramadan = calendar.toEpochDay(1447, 9, 1);
+
+        int onTheDay = events.next(ramadan);
+        assertEquals(ramadan, events.epochDayAt(onTheDay));
+        assertEquals(IslamicEvents.RAMADAN_START, events.kindAt(onTheDay));
+
+        int before = events.next(ramadan - 10);
+        assertEquals(onTheDay, before);
+
+        int after = events.nextAfter(ramadan);
+        assertEquals(IslamicEvents.LAYLAT_AL_QADR, events.kindAt(after));
+        assertEquals(calendar.toEpochDay(1447, 9, 21), events.epochDayAt(after));
+
+        assertEquals(-1, events.next(calendar.toEpochDay(1448, 12, 11)));
+    }
+
+    @Test
+    public void range_holdsTheLastTenNightsAndEid() {
+        long first = calendar.toEpochDay(1447, 9, 20);
+        long last = calendar.toEpochDay(1447, 10, 1);
+
+        int start = events.rangeStart(first);
+        int end = events.rangeEnd(last);
+        assertEquals(6, end - start);
+        assertEquals(IslamicEvents.EID_AL_FITR, events.kindAt(end - 1));
+        assertEquals(0, events.rangeEnd(first - 10000) - events.rangeStart(first - 10000));
+    }
+
+    @Test
+    public void daysUntil_countsToTheNextEvent() {
+        long arafah = calendar.toEpochDay(1447, 12, 9);
+        assertEquals(0, events.daysUntil(arafah));
+        assertEquals(5, events.daysUntil(arafah - 5));
+        assertEquals(-1, events.daysUntil(calendar.toEpochDay(1448, 12, 11)));
+    }
+
+    @Test
+    public void build_keepsToTheCalendarsRange() {
+        IslamicEvents clipped = IslamicEvents.build(calendar, calendar.getMaxYear(), calendar.getMaxYear() + 5);
+        assertEquals(calendar.getMaxYear(), clipped.getLastYear());
+        assertEquals(11, clipped.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class MonthGridTest {
+
+    private final HijriCalendar calendar = TabularHijriCalendar.getInstance();
+
+    @Test
+    public void compute_startsOnTheSundayBeforeTheFirstAndFillsSixWeeks() {
+        MonthGrid grid = MonthGrid.compute(calendar, 1447, 9);
+        long monthStart = calendar.toEpochDay(1447, 9, 1);
+
+        assertEquals(monthStart, grid.epochDayAt(grid.getFirstCell()));
+        assertEquals(DayOfWeek.SUNDAY, LocalDate.ofEpochDay(grid.getFirstEpochDay()).getDayOfWeek());
+        assertTrue(grid.getFirstCell() < MonthGrid.COLUMNS);
+        assertEquals(calendar.lengthOfMonth(1447, 9), grid.getLength());
+
+        for (int cell = 0; cell < MonthGrid.CELLS; cell++) {
+            long epochDay = grid.epochDayAt(cell);
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            assertEquals(calendar.toHijri(epochDay), grid.hijriAt(cell));
+            assertEquals(HijriCalendar.pack(date.getYear(), date.getMonthValue(), date.getDayOfMonth()),
+                    grid.gregorianAt(cell));
+            assertEquals(epochDay >= monthStart && epochDay < monthStart + grid.getLength(), grid.isInMonth(cell));
+            assertEquals(cell, grid.cellOf(epochDay));
+        }
+        assertEquals(-1, grid.cellOf(grid.getFirstEpochDay() - 1));
+    }
+
+    @Test
+    public void compute_marksEventsIncludingThoseOfTheNextMonth() {
+        MonthGrid grid = MonthGrid.compute(calendar, 1447, 9);
+
+        assertEquals(IslamicEvents.RAMADAN_START, grid.eventAt(grid.getFirstCell()));
+        assertEquals(IslamicEvents.LAYLAT_AL_QADR, grid.eventAt(grid.getFirstCell() + 26));
+        assertEquals(MonthGrid.NO_EVENT, grid.eventAt(grid.getFirstCell() + 1));
+        int eid = grid.cellOf(calendar.toEpochDay(1447, 10, 1));
+        assertEquals(IslamicEvents.EID_AL_FITR, grid.eventAt(eid));
+        assertFalse(grid.isInMonth(eid));
+    }
+
+    @Test
+    public void compute_leavesCellsBeforeTheCalendarEmpty() {
+        MonthGrid grid = MonthGrid.compute(calendar, TabularHijriCalendar.MIN_YEAR, 1);
+
+        for (int cell = 0; cell < grid.getFirstCell(); cell++) {
+            assertEquals(0, grid.hijriAt(cell));
+        }
+        assertEquals(HijriCalendar.pack(TabularHijriCalendar.MIN_YEAR, 1, 1), grid.hijriAt(grid.getFirstCell()));
+    }
+}
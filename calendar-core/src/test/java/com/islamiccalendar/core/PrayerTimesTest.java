@@ -0,0 +1,111 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.Assert.*;
+
+public class PrayerTimesTest {
+
+    private static final LocalDate SOLSTICE = LocalDate.of(2025, 6, 21);
+
+    private final PrayerTimes mecca = PrayerTimes.computeYear(2025, 21.4225, 39.8262,
+            ZoneId.of("Asia/Riyadh"), PrayerMethod.UMM_AL_QURA, PrayerTimes.ASR_SHAFI);
+
+    @Test
+    public void computeYear_matchesPublishedTimesForMecca() {
+        // Umm al-Qura timetable for 21 June 2025: 04:11 05:39 12:22 15:41 19:06 20:36
+        int[] expected = {4 * 60 + 11, 5 * 60 + 39, 12 * 60 + 22, 15 * 60 + 41, 19 * 60 + 6, 20 * 60 + 36};
+        int[] day = new int[PrayerTimes.PRAYERS];
+        mecca.getDay(SOLSTICE, day);
+        for (int prayer = 0; prayer < PrayerTimes.PRAYERS; prayer++) {
+            assertEquals(PrayerTimes.name(prayer), expected[prayer], day[prayer], 2);
+        }
+    }
+
+    @Test
+    public void computeYear_hanafiAsrIsLater() {
+        PrayerTimes hanafi = PrayerTimes.computeYear(2025, 21.4225, 39.8262,
+                ZoneId.of("Asia/Riyadh"), PrayerMethod.UMM_AL_QURA, PrayerTimes.ASR_HANAFI);
+        assertTrue(hanafi.getTime(SOLSTICE, PrayerTimes.ASR) > mecca.getTime(SOLSTICE, PrayerTimes.ASR) + 30);
+        assertEquals(mecca.getTime(SOLSTICE, PrayerTimes.DHUHR), hanafi.getTime(SOLSTICE, PrayerTimes.DHUHR));
+    }
+
+    @Test
+    public void computeYear_marksTwilightThatNeverEnds() {
+        // London in midsummer: the sun never gets 18 degrees below the horizon
+        PrayerTimes london = PrayerTimes.computeYear(2025, 51.5074, -0.1278,
+                ZoneId.of("Europe/London"), PrayerMethod.MWL, PrayerTimes.ASR_SHAFI);
+        assertEquals(PrayerTimes.NO_TIME, london.getTime(SOLSTICE, PrayerTimes.FAJR));
+        assertEquals(PrayerTimes.NO_TIME, london.getTime(SOLSTICE, PrayerTimes.ISHA));
+        assertNotEquals(PrayerTimes.NO_TIME, london.getTime(SOLSTICE, PrayerTimes.MAGHRIB));
+    }
+
+    @Test
+    public void nextPrayer_skipsSunriseAndWrapsToTomorrow() {
+        int afterFajr = mecca.nextPrayer(SOLSTICE, mecca.getTime(SOLSTICE, PrayerTimes.FAJR));
+        assertEquals(PrayerTimes.DHUHR, PrayerTimes.prayerAt(afterFajr));
+        assertEquals(SOLSTICE.toEpochDay(), mecca.epochDayAt(afterFajr));
+
+        int late = mecca.nextPrayer(SOLSTICE, 23 * 60);
+        assertEquals(PrayerTimes.FAJR, PrayerTimes.prayerAt(late));
+        assertEquals(SOLSTICE.toEpochDay() + 1, mecca.epochDayAt(late));
+        assertEquals(mecca.getTime(SOLSTICE.plusDays(1), PrayerTimes.FAJR), mecca.timeAt(late));
+
+        // After the year's last Isha the next one is in next year's times
+        assertEquals(-1, mecca.nextPrayer(LocalDate.of(2025, 12, 31), 23 * 60));
+        PrayerTimes nextYear = PrayerTimes.computeYear(2026, 21.4225, 39.8262,
+                ZoneId.of("Asia/Riyadh"), PrayerMethod.UMM_AL_QURA, PrayerTimes.ASR_SHAFI);
+        LocalDate newYear = LocalDate.of(2026, 1, 1);
+        int first = nextYear.nextPrayer(newYear, 23 * 60 - 1440);
+        assertEquals(PrayerTimes.FAJR, PrayerTimes.prayerAt(first));
+        assertEquals(newYear.toEpochDay(), nextYear.epochDayAt(first));
+    }
+
+    @Test
+    public void ishaAfterMidnight_staysAfterMaghribAndIsNextLateInTheEvening() {
+        // Amsterdam in early June: the sun gets 15 degrees down only after midnight
+        LocalDate date = LocalDate.of(2025, 6, 5);
+        PrayerTimes amsterdam = PrayerTimes.computeYear(2025, 52.3676, 4.9041,
+                ZoneId.of("Europe/Amsterdam"), PrayerMethod.ISNA, PrayerTimes.ASR_SHAFI);
+        int isha = amsterdam.getTime(date, PrayerTimes.ISHA);
+        assertEquals(1440 + 90, isha, 10);
+        assertTrue(isha > amsterdam.getTime(date, PrayerTimes.MAGHRIB));
+
+        int late = amsterdam.nextPrayer(date, 23 * 60);
+        assertEquals(PrayerTimes.ISHA, PrayerTimes.prayerAt(late));
+        assertEquals(date.toEpochDay(), amsterdam.epochDayAt(late));
+
+        // Still tonight's Isha just after midnight, by the next day's clock
+        int afterMidnight = amsterdam.nextPrayer(date.plusDays(1), 30);
+        assertEquals(PrayerTimes.ISHA, PrayerTimes.prayerAt(afterMidnight));
+        assertEquals(date.toEpochDay(), amsterdam.epochDayAt(afterMidnight));
+
+        // The 6th has no Fajr at 15 degrees either
+        int afterIsha = amsterdam.nextPrayer(date.plusDays(1), isha - 1440 + 1);
+        assertEquals(PrayerTimes.DHUHR, PrayerTimes.prayerAt(afterIsha));
+        assertEquals(date.toEpochDay() + 1, amsterdam.epochDayAt(afterIsha));
+    }
+
+    @Test
+    public void clockChange_appliesToTheTimesAfterIt() {
+        // Far east of the London meridian, British Summer Time starts (01:00
+        // UTC on 30 March) between sunrise and noon: the morning is an hour
+        // longer by the clock that day, and only that day
+        PrayerTimes east = PrayerTimes.computeYear(2025, 0, 90,
+                ZoneId.of("Europe/London"), PrayerMethod.MWL, PrayerTimes.ASR_SHAFI);
+        LocalDate before = LocalDate.of(2025, 3, 29);
+        LocalDate change = LocalDate.of(2025, 3, 30);
+        LocalDate after = LocalDate.of(2025, 3, 31);
+
+        assertEquals(morning(east, before) + 60, morning(east, change), 2);
+        assertEquals(morning(east, before), morning(east, after), 2);
+        assertEquals(east.getTime(before, PrayerTimes.SUNRISE), east.getTime(change, PrayerTimes.SUNRISE), 2);
+    }
+
+    private static int morning(PrayerTimes times, LocalDate date) {
+        return times.getTime(date, PrayerTimes.DHUHR) - times.getTime(date, PrayerTimes.SUNRISE);
+    }
+}
@@ -0,0 +1,101 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RangeConverterTest {
+
+    private final HijriCalendar calendar = TabularHijriCalendar.getInstance();
+    private final RangeConverter converter = new RangeConverter(calendar);
+
+    @Test
+    public void convertRange_matchesDayByDayConversionAcrossYears() {
+        long first = calendar.toEpochDay(1445, 11, 17);
+        int[] out = new int[1000 + 3];
+        converter.convertRange(first, 1000, out, 3);
+
+        assertEquals(0, out[0]);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(calendar.toHijri(first + i), out[3 + i]);
+        }
+    }
+
+    @Test
+    public void convertRange_reachesTheLastSupportedDay() {
+        int[] out = new int[40];
+        converter.convertRange(converter.getLastDay() - 39, 40, out, 0);
+
+        assertEquals(HijriCalendar.pack(TabularHijriCalendar.MAX_YEAR, 12, 30), out[39]);
+        assertEquals(HijriCalendar.pack(TabularHijriCalendar.MAX_YEAR, 12, 1), out[10]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void convertRange_rejectsDaysPastTheCalendar() {
+        converter.convertRange(converter.getLastDay() - 5, 10, new int[10], 0);
+    }
+
+    @Test
+    public void convertBatch_andConvertParallel_matchToHijriInAnyOrder() {
+        Random random = new Random(42);
+        long[] days = new long[50_000];
+        long span = converter.getLastDay() - converter.getFirstDay() + 1;
+        for (int i = 0; i < days.length; i++) {
+            // Runs of neighbouring days mixed with jumps, as in real batches
+            days[i] = i % 7 == 0 || i == 0
+                    ? converter.getFirstDay() + (long) (random.nextDouble() * span)
+                    : Math.min(converter.getLastDay(), days[i - 1] + random.nextInt(3));
+        }
+        int[] batch = new int[days.length];
+        int[] parallel = new int[days.length];
+        converter.convertBatch(days, batch);
+        converter.convertParallel(days, parallel);
+
+        for (int i = 0; i < days.length; i++) {
+            assertEquals(calendar.toHijri(days[i]), batch[i]);
+        }
+        assertArrayEquals(batch, parallel);
+    }
+
+    @Test
+    public void csv_appendsTheHijriDateOfTheChosenColumn() throws IOException {
+        String csv = "id,date,note\r\n"
+                + "1,2025-03-01,\"a, b\"\r\n"
+                + "2,\"2025-03-30\",x\r\n"
+                + "3,not a date,y\r\n"
+                + "4,2025-02-29,leap\r\n"
+                + "5,2025-03-31";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvDateConverter(calendar, 1).convert(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII)), out);
+
+        String[] rows = new String(out.toByteArray(), StandardCharsets.US_ASCII).split("\r\n", -1);
+        assertEquals("id,date,note,hijri", rows[0]);
+        assertEquals("1,2025-03-01,\"a, b\"," + iso(LocalDate.of(2025, 3, 1)), rows[1]);
+        assertEquals("2,\"2025-03-30\",x," + iso(LocalDate.of(2025, 3, 30)), rows[2]);
+        assertEquals("3,not a date,y,", rows[3]);
+        assertEquals("4,2025-02-29,leap,", rows[4]);
+        assertEquals("5,2025-03-31," + iso(LocalDate.of(2025, 3, 31)), rows[5]);
+    }
+
+    @Test
+    public void csv_epochDayMatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2101; date = date.plusDays(13)) {
+            assertEquals(date.toEpochDay(),
+                    CsvDateConverter.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+
+    private String iso(LocalDate date) {
+        int hijri = calendar.toHijri(date.toEpochDay());
+        return String.format("%04d-%02d-%02d",
+                HijriCalendar.year(hijri), HijriCalendar.month(hijri), HijriCalendar.day(hijri));
+    }
+}
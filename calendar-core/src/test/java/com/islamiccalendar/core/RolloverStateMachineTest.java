@@ -0,0 +1,119 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RolloverStateMachineTest {
+
+    private static final int YEARS = 20;
+
+    private final HijriCalendar base = TabularHijriCalendar.getInstance();
+
+    private AdjustedHijriCalendar newCalendar() {
+        return new AdjustedHijriCalendar(base, new SightingAdjustments(AdjustedHijriCalendar.monthCount(base)));
+    }
+
+    @Test
+    public void table_advancesToThe29thAndHolds() {
+        HijriCalendar calendar = newCalendar();
+        long first = base.toEpochDay(1446, 8, 1);
+
+        assertEquals(first + 5, RolloverStateMachine.advance(calendar, first, first + 5));
+        assertEquals(first + 28, RolloverStateMachine.advance(calendar, first, first + 40));
+        assertEquals(RolloverStateMachine.EFFECT_HELD,
+                RolloverStateMachine.effect(calendar, first, first + 28, first + 40));
+        assertEquals(RolloverStateMachine.EFFECT_NONE,
+                RolloverStateMachine.effect(calendar, first, first, first));
+    }
+
+    @Test
+    public void day30_rollsIntoTheNextMonthAndOn() {
+        AdjustedHijriCalendar calendar = newCalendar();
+        long thirtieth = base.toEpochDay(1446, 9, 1);
+        calendar.correct(thirtieth, 1446, 8, 30);
+
+        long reached = RolloverStateMachine.advance(calendar, thirtieth, thirtieth + 4);
+        assertEquals(thirtieth + 4, reached);
+        assertEquals(HijriCalendar.pack(1446, 9, 4), calendar.toHijri(reached));
+        assertEquals(RolloverStateMachine.EFFECT_ADVANCED,
+                RolloverStateMachine.effect(calendar, thirtieth, reached, thirtieth + 4));
+    }
+
+    // Replays YEARS of sunsets two ways: the alarm applying each sunset as it
+    // happens, and the worker or a late alarm applying them at random times,
+    // sometimes days apart and sometimes twice. The user answers each held
+    // 29th a little later. Both must be on the same date every time they look.
+    @Test
+    public void alarmAndCatchUp_agreeOverYearsOfSunsets() {
+        Random random = new Random(1447);
+        long start = base.toEpochDay(1440, 1, 1);
+        int days = YEARS * 365;
+
+        AdjustedHijriCalendar alarmCalendar = newCalendar();
+        AdjustedHijriCalendar catchUpCalendar = newCalendar();
+        long alarmDay = start;
+        long catchUpDay = start;
+        long[] expected = new long[days + 1];
+        long heldSince = -1;
+        int monthsAnswered = 0;
+
+        for (int i = 1; i <= days; i++) {
+            long today = start + i;
+
+            // Alarm: every sunset, as it happens
+            long advanced = RolloverStateMachine.advance(alarmCalendar, alarmDay, today);
+            int effect = RolloverStateMachine.effect(alarmCalendar, alarmDay, advanced, today);
+            assertTrue("a sunset was applied more than once", advanced <= today);
+            if (effect == RolloverStateMachine.EFFECT_ADVANCED) {
+                assertEquals(today, advanced);
+            }
+            alarmDay = advanced;
+
+            // The user answers a held 29th within two days: the 30th only on
+            // the first held day, the 1st on either, so months stay 29 or 30 days
+            if (effect == RolloverStateMachine.EFFECT_HELD) {
+                if (heldSince < 0) {
+                    heldSince = today;
+                }
+                if (random.nextInt(3) == 0 || today - heldSince >= 1) {
+                    int held = alarmCalendar.toHijri(alarmDay);
+                    int answer = today == heldSince && random.nextBoolean()
+                            ? HijriCalendar.pack(HijriCalendar.year(held), HijriCalendar.month(held), 30)
+                            : nextMonth(held);
+                    alarmCalendar.correct(today, HijriCalendar.year(answer),
+                            HijriCalendar.month(answer), HijriCalendar.day(answer));
+                    catchUpCalendar.correct(today, HijriCalendar.year(answer),
+                            HijriCalendar.month(answer), HijriCalendar.day(answer));
+                    alarmDay = today;
+                    catchUpDay = today;
+                    heldSince = -1;
+                    monthsAnswered++;
+                }
+            }
+            expected[i] = alarmDay;
+
+            // Catch-up: only on some days, sometimes twice
+            int runs = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(2);
+            for (int run = 0; run < runs; run++) {
+                catchUpDay = RolloverStateMachine.advance(catchUpCalendar, catchUpDay, today);
+                assertEquals("day " + i, expected[i], catchUpDay);
+                assertEquals(alarmCalendar.toHijri(alarmDay), catchUpCalendar.toHijri(catchUpDay));
+            }
+        }
+
+        assertTrue(monthsAnswered > YEARS * 11);
+    }
+
+    private static int nextMonth(int date) {
+        int month = HijriCalendar.month(date) + 1;
+        int year = HijriCalendar.year(date);
+        if (month > 12) {
+            month = 1;
+            year++;
+        }
+        return HijriCalendar.pack(year, month, 1);
+    }
+}
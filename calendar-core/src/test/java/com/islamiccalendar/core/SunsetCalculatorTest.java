@@ -0,0 +1,79 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.Assert.*;
+
+public class SunsetCalculatorTest {
+
+    private static final LocalDate JUNE_SOLSTICE = LocalDate.of(2025, 6, 21);
+    private static final LocalDate DECEMBER_SOLSTICE = LocalDate.of(2025, 12, 21);
+
+    private static int sunset(LocalDate date, double latitude, double longitude, String zone) {
+        return SunsetCalculator.computeSunset(date.toEpochDay(), latitude, longitude, ZoneId.of(zone).getRules());
+    }
+
+    @Test
+    public void computeSunset_matchesPublishedTimesAtTheSolstices() {
+        // Mecca 19:07 and 17:43, London 21:21 BST and 15:53 GMT
+        assertEquals(19 * 60 + 7, sunset(JUNE_SOLSTICE, 21.4225, 39.8262, "Asia/Riyadh"), 2);
+        assertEquals(17 * 60 + 43, sunset(DECEMBER_SOLSTICE, 21.4225, 39.8262, "Asia/Riyadh"), 2);
+        assertEquals(21 * 60 + 21, sunset(JUNE_SOLSTICE, 51.5074, -0.1278, "Europe/London"), 2);
+        assertEquals(15 * 60 + 53, sunset(DECEMBER_SOLSTICE, 51.5074, -0.1278, "Europe/London"), 2);
+    }
+
+    @Test
+    public void computeSunset_marksPolarDayAndNight() {
+        assertEquals(SunsetCalculator.NO_SUNSET, sunset(JUNE_SOLSTICE, 69.6492, 18.9553, "Europe/Oslo"));
+        assertEquals(SunsetCalculator.NO_SUNSET, sunset(DECEMBER_SOLSTICE, 69.6492, 18.9553, "Europe/Oslo"));
+        assertEquals(SunsetCalculator.NO_SUNSET, sunset(JUNE_SOLSTICE, -77.85, 166.67, "Antarctica/McMurdo"));
+    }
+
+    @Test
+    public void computeSunset_isTheSunsetOfTheLocalDateFarFromTheZoneMeridian() {
+        // UTC+14 at 150 degrees west: the evening of a local date is the
+        // previous UTC day's sunset, and at 60 degrees north it moves by
+        // minutes a day around the equinoxes
+        assertEverySunsetFallsOnItsDate(60, -150, ZoneId.of("Pacific/Kiritimati"));
+        assertEverySunsetFallsOnItsDate(1.87, -157.4, ZoneId.of("Pacific/Kiritimati"));
+        assertEverySunsetFallsOnItsDate(-14.3, -170.7, ZoneId.of("Pacific/Pago_Pago"));
+    }
+
+    @Test
+    public void computeSunset_neverWrapsALateSunsetToMidnight() {
+        // Just south of the Arctic Circle, midsummer sunsets come near midnight
+        short[] year = SunsetCalculator.computeYear(2025, 65.8, 25.7, ZoneId.of("Europe/Helsinki"));
+        for (short minutes : year) {
+            assertTrue(minutes == SunsetCalculator.NO_SUNSET || (minutes >= 0 && minutes < 1440));
+        }
+        assertEverySunsetFallsOnItsDate(65.8, 25.7, ZoneId.of("Europe/Helsinki"));
+    }
+
+    // Each day's result, read as a local time on that date, is within a
+    // minute and a half of a real sunset, or is 23:59 on a date the sunset
+    // skips by moving past midnight
+    private static void assertEverySunsetFallsOnItsDate(double latitude, double longitude, ZoneId zone) {
+        short[] year = SunsetCalculator.computeYear(2025, latitude, longitude, zone);
+        for (int i = 0; i < year.length; i++) {
+            if (year[i] == SunsetCalculator.NO_SUNSET) {
+                continue;
+            }
+            LocalDate date = LocalDate.ofYearDay(2025, i + 1);
+            long local = date.atTime(year[i] / 60, year[i] % 60).atZone(zone).toEpochSecond();
+            long nearest = Long.MAX_VALUE;
+            boolean skipped = false;
+            for (long day = date.toEpochDay() - 1; day <= date.toEpochDay() + 1; day++) {
+                double utc = SunsetCalculator.computeSunsetUtc(day, latitude, longitude);
+                if (!Double.isNaN(utc)) {
+                    long after = day * 86400 + Math.round(utc * 60) - local;
+                    nearest = Math.min(nearest, Math.abs(after));
+                    skipped |= year[i] == 23 * 60 + 59 && after > 0 && after < 600;
+                }
+            }
+            assertTrue(date + " is " + nearest + " s from a sunset", nearest <= 90 || skipped);
+        }
+    }
+}
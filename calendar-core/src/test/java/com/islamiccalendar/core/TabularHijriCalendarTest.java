@@ -0,0 +1,51 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class TabularHijriCalendarTest {
+
+    private final HijriCalendar calendar = TabularHijriCalendar.getInstance();
+
+    @Test
+    public void knownDate_convertsBothWays() {
+        // 1 Muharram 1447 falls on 27 June 2025 in the civil tabular calendar
+        long epochDay = LocalDate.of(2025, 6, 27).toEpochDay();
+        int date = calendar.toHijri(epochDay);
+
+        assertEquals(1447, HijriCalendar.year(date));
+        assertEquals(1, HijriCalendar.month(date));
+        assertEquals(1, HijriCalendar.day(date));
+        assertEquals(epochDay, calendar.toEpochDay(1447, 1, 1));
+    }
+
+    @Test
+    public void everySupportedDay_roundTrips() {
+        long first = calendar.toEpochDay(calendar.getMinYear(), 1, 1);
+        long last = calendar.toEpochDay(calendar.getMaxYear(), 12, 1)
+                + calendar.lengthOfMonth(calendar.getMaxYear(), 12) - 1;
+
+        for (long epochDay = first; epochDay <= last; epochDay++) {
+            int date = calendar.toHijri(epochDay);
+            assertEquals(epochDay, calendar.toEpochDay(
+                    HijriCalendar.year(date), HijriCalendar.month(date), HijriCalendar.day(date)));
+        }
+    }
+
+    @Test
+    public void monthLengths_followLeapCycle() {
+        assertEquals(30, calendar.lengthOfMonth(1447, 1));
+        assertEquals(29, calendar.lengthOfMonth(1447, 2));
+        // 1445 is year 5 of its 30-year cycle, a leap year
+        assertEquals(30, calendar.lengthOfMonth(1445, 12));
+        assertEquals(29, calendar.lengthOfMonth(1446, 12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outOfRangeDay_isRejected() {
+        calendar.toHijri(LocalDate.of(1800, 1, 1).toEpochDay());
+    }
+}
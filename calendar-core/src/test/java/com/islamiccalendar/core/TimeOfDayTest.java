@@ -0,0 +1,43 @@
+package com.islamiccalendar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeOfDayTest {
+
+    @Test
+    public void parse24Hour_acceptsOneOrTwoDigitHours() {
+        assertEquals(18 * 60 + 5, TimeOfDay.parse24Hour("18:05"));
+        assertEquals(6 * 60 + 30, TimeOfDay.parse24Hour("6:30"));
+        assertEquals(TimeOfDay.INVALID, TimeOfDay.parse24Hour("24:00"));
+        assertEquals(TimeOfDay.INVALID, TimeOfDay.parse24Hour("6:3"));
+        assertEquals(TimeOfDay.INVALID, TimeOfDay.parse24Hour("ab:cd"));
+    }
+
+    @Test
+    public void parse12Hour_handlesNoonAndMidnight() {
+        assertEquals(18 * 60 + 45, TimeOfDay.parse12Hour("6:45 PM"));
+        assertEquals(18 * 60 + 45, TimeOfDay.parse12Hour("06:45pm"));
+        assertEquals(12 * 60, TimeOfDay.parse12Hour("12:00 PM"));
+        assertEquals(0, TimeOfDay.parse12Hour("12:00 AM"));
+        assertEquals(TimeOfDay.INVALID, TimeOfDay.parse12Hour("13:00 PM"));
+        assertEquals(TimeOfDay.INVALID, TimeOfDay.parse12Hour("0:30 AM"));
+    }
+
+    @Test
+    public void format_roundTrips() {
+        for (int minutes = 0; minutes < 24 * 60; minutes++) {
+            assertEquals(minutes, TimeOfDay.parse24Hour(TimeOfDay.format24Hour(minutes)));
+            assertEquals(minutes, TimeOfDay.parse12Hour(TimeOfDay.format12Hour(minutes)));
+        }
+        assertEquals("6:05 PM", TimeOfDay.format12Hour(18 * 60 + 5));
+        assertEquals("12:00 AM", TimeOfDay.format12Hour(0));
+    }
+
+    @Test
+    public void arabicNumerals_replaceDigitsOnly() {
+        assertEquals("١٤٤٧", ArabicNumerals.format(1447));
+        assertEquals("٢٩ - ٣", ArabicNumerals.convert("29 - 3"));
+    }
+}
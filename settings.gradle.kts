@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Islamic Calendar App"
 include(":app")
+include(":calendar-core")
+include(":benchmarks")